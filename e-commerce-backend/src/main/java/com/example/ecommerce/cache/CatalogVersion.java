@@ -0,0 +1,49 @@
+package com.example.ecommerce.cache;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global version of everything the public catalog endpoints return. Any write
+ * to products, categories or ratings bumps it, which changes the ETag of every
+ * catalog listing at once. The startup time is part of the tag so a restart
+ * never reuses an old one.
+ */
+@Component
+public class CatalogVersion {
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Strong tag for the current version. Gzipped and identity bodies differ
+     * byte for byte, so each encoding gets its own tag.
+     */
+    public String etag(boolean gzip) {
+        return "\"catalog-" + epoch + "-" + version.get() + (gzip ? "-gzip\"" : "\"");
+    }
+
+    /**
+     * Bumps the version once the current transaction commits, or right away
+     * outside a transaction. Bumping earlier would let a concurrent reader
+     * cache pre-commit data under the new tag.
+     */
+    public void bump() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+}
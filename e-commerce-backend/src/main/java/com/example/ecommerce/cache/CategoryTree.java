@@ -0,0 +1,106 @@
+package com.example.ecommerce.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the category hierarchy. Nodes are numbered in pre-order,
+ * so a category's subtree is exactly the nodes with {@code left} in
+ * {@code [node.left, node.right]}.
+ */
+public final class CategoryTree {
+    public static final CategoryTree EMPTY = new CategoryTree(List.of(), Map.of());
+
+    private final List<Node> roots;
+    private final Map<Long, Node> byId;
+
+    private CategoryTree(List<Node> roots, Map<Long, Node> byId) {
+        this.roots = roots;
+        this.byId = byId;
+    }
+
+    public List<Node> roots() {
+        return roots;
+    }
+
+    public Node get(Long id) {
+        return byId.get(id);
+    }
+
+    public Iterable<Node> nodes() {
+        return byId.values();
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Builds the tree from [id, parentId, name] rows. Categories whose parent is
+     * missing are treated as roots.
+     */
+    static CategoryTree build(List<Object[]> links) {
+        Map<Long, String> names = new HashMap<>();
+        Map<Long, Long> parents = new HashMap<>();
+        for (Object[] row : links) {
+            names.put((Long) row[0], (String) row[2]);
+            parents.put((Long) row[0], (Long) row[1]);
+        }
+
+        Map<Long, List<Long>> childIds = new HashMap<>();
+        List<Long> rootIds = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : parents.entrySet()) {
+            Long parentId = entry.getValue();
+            if (parentId == null || !names.containsKey(parentId)) {
+                rootIds.add(entry.getKey());
+            } else {
+                childIds.computeIfAbsent(parentId, id -> new ArrayList<>()).add(entry.getKey());
+            }
+        }
+
+        Map<Long, Node> byId = new HashMap<>();
+        int[] counter = { 0 };
+        List<Node> roots = number(rootIds, null, 0, names, childIds, byId, counter);
+        return new CategoryTree(roots, Collections.unmodifiableMap(byId));
+    }
+
+    private static List<Node> number(List<Long> ids, Long parentId, int depth, Map<Long, String> names,
+            Map<Long, List<Long>> childIds, Map<Long, Node> byId, int[] counter) {
+        ids.sort(Comparator.<Long, String>comparing(names::get, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+                .thenComparing(Comparator.naturalOrder()));
+        List<Node> nodes = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            int left = ++counter[0];
+            List<Node> children = number(childIds.getOrDefault(id, new ArrayList<>()), id, depth + 1, names,
+                    childIds, byId, counter);
+            Node node = new Node(id, names.get(id), parentId, depth, left, counter[0], children);
+            byId.put(id, node);
+            nodes.add(node);
+        }
+        return List.copyOf(nodes);
+    }
+
+    public record Node(Long id, String name, @JsonIgnore Long parentId, @JsonIgnore int depth,
+            @JsonIgnore int left, @JsonIgnore int right, List<Node> children) {
+
+        // This category followed by all of its descendants, in pre-order
+        public List<Long> subtreeIds() {
+            List<Long> ids = new ArrayList<>(right - left + 1);
+            collect(this, ids);
+            return ids;
+        }
+
+        private static void collect(Node node, List<Long> ids) {
+            ids.add(node.id);
+            for (Node child : node.children) {
+                collect(child, ids);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.repository.CategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the current {@link CategoryTree}. Product listings of a category
+ * subtree resolve it to the list of category ids from this snapshot.
+ */
+@Component
+public class CategoryTreeCache {
+    private static final Logger logger = LoggerFactory.getLogger(CategoryTreeCache.class);
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private volatile CategoryTree tree = CategoryTree.EMPTY;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.error("Failed to build category tree", e);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public CategoryTree get() {
+        return tree;
+    }
+
+    // Serialized so a slower rebuild never publishes over a newer one
+    public synchronized void rebuild() {
+        CategoryTree built = CategoryTree.build(categoryRepository.findCategoryLinks());
+        tree = built;
+        ready = true;
+        logger.info("Category tree rebuilt with {} categories", built.size());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.entity.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of product entities keyed by id. Caffeine's W-TinyLFU
+ * admission keeps hot products resident, and concurrent misses for the same id
+ * share a single load. Writers must call {@link #invalidate(Long)} after commit.
+ */
+@Component
+public class ProductCache {
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.productCache.maxSize:10000}")
+    private long maxSize;
+
+    // Upper bound on staleness should an invalidation ever be missed
+    @Value("${app.productCache.ttlSeconds:600}")
+    private long ttlSeconds;
+
+    private Cache<Long, Product> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        // Publishes cache.gets{result=hit|miss}, cache.evictions and cache.size
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+    }
+
+    /**
+     * Returns the cached product, or runs the loader once for all concurrent
+     * callers. A null result is not cached.
+     */
+    public Product get(Long id, Function<Long, Product> loader) {
+        return cache.get(id, loader);
+    }
+
+    /**
+     * Returns the cached products among the ids, loading all misses with one
+     * call to the loader. Ids the loader does not return are left out.
+     */
+    public Map<Long, Product> getAll(Collection<Long> ids, Function<Set<? extends Long>, Map<Long, Product>> loader) {
+        return cache.getAll(ids, loader);
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.ecommerce.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Fully rendered JSON of the first few pages of catalog listings, kept both
+ * plain and gzipped. Keys include the catalog version, so any catalog write
+ * makes every entry unreachable and it ages out. A hit writes the stored bytes
+ * as-is, skipping the database, Jackson and compression.
+ */
+@Component
+public class RenderedPageCache {
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.pageCache.maxPages:3}")
+    private int maxPages;
+
+    @Value("${app.pageCache.maxPageSize:50}")
+    private int maxPageSize;
+
+    @Value("${app.pageCache.maxBytes:33554432}")
+    private long maxBytes;
+
+    private Cache<String, RenderedPage> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .<String, RenderedPage>weigher((key, page) -> page.identity().length + page.gzip().length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "catalogPages");
+    }
+
+    /**
+     * Returns the listing identified by {@code resource} and {@code pageable},
+     * rendering it with {@code loader} on a miss. Deep or oversized pages bypass
+     * the cache.
+     */
+    public ResponseEntity<?> render(String resource, Pageable pageable, String acceptEncoding, Supplier<?> loader) {
+        if (pageable.getPageNumber() >= maxPages || pageable.getPageSize() > maxPageSize) {
+            return ResponseEntity.ok(loader.get());
+        }
+
+        // Version read first: a concurrent write can only make the stored page newer than its key
+        String key = resource + "?page=" + pageable.getPageNumber() + "&size=" + pageable.getPageSize()
+                + "&sort=" + pageable.getSort() + "#" + catalogVersion.current();
+        RenderedPage page = cache.get(key, k -> render(loader.get()));
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(page.gzip());
+        }
+        return response.body(page.identity());
+    }
+
+    /**
+     * Whether an Accept-Encoding header admits gzip: listed (or covered by
+     * {@code *}) with a non-zero q-value. An explicit gzip entry overrides
+     * the wildcard.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] params = coding.split(";");
+            String name = params[0].trim();
+            double q = 1;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+                gzip = gzip == null ? q : Math.max(gzip, q);
+            } else if (name.equals("*")) {
+                wildcard = q;
+            }
+        }
+        Double q = gzip != null ? gzip : wildcard;
+        return q != null && q > 0;
+    }
+
+    private RenderedPage render(Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(json);
+            }
+            return new RenderedPage(json, compressed.toByteArray());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not render catalog page", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record RenderedPage(byte[] identity, byte[] gzip) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.ecommerce.cart;
+
+import java.util.List;
+
+/**
+ * Unwritten changes of one cart. Lines carry their new absolute state, with
+ * quantity 0 for a removal, plus the amount added when the line was only
+ * increased; clear means every stored line goes first. Unless forced, the
+ * write only applies if the cart row is still at the given version.
+ */
+record CartChanges(Long userId, Long cartId, long version, boolean force, boolean clear, int clearGeneration,
+        List<LineChange> lines) {
+
+    record LineChange(CartLine line, Integer added) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.ecommerce.cart;
+
+import java.math.BigDecimal;
+
+/**
+ * One change to a cart line: adds to its quantity, or sets it, where zero
+ * removes the line. The price is only used when the edit creates the line;
+ * without one, setting a line that does not exist fails.
+ */
+public record CartEdit(Long productId, int quantity, boolean relative, BigDecimal price) {
+    public static CartEdit add(Long productId, int quantity, BigDecimal price) {
+        return new CartEdit(productId, quantity, true, price);
+    }
+
+    public static CartEdit set(Long productId, int quantity, BigDecimal price) {
+        return new CartEdit(productId, quantity, false, price);
+    }
+}
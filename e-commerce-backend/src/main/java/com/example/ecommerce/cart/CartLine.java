@@ -0,0 +1,7 @@
+package com.example.ecommerce.cart;
+
+import java.math.BigDecimal;
+
+// One product in a cart; price is the unit price when the line was first added
+public record CartLine(Long productId, int quantity, BigDecimal price) {
+}
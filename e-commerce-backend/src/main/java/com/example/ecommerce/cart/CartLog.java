@@ -0,0 +1,147 @@
+package com.example.ecommerce.cart;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of cart mutations, split into numbered segments. The active
+ * segment is sealed on every flush and deleted once the database holds
+ * everything it recorded; segments left behind by a crash are replayed on
+ * startup. Records are flushed to the OS as they are written, so they survive
+ * a process crash.
+ */
+class CartLog {
+    private static final Logger logger = LoggerFactory.getLogger(CartLog.class);
+
+    private static final String PREFIX = "cart-";
+    private static final String SUFFIX = ".log";
+
+    private final Path dir;
+    private final List<Path> sealed = new ArrayList<>();
+    private long sequence;
+    private Path active;
+    private BufferedWriter writer;
+    private boolean activeEmpty;
+
+    CartLog(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Feeds every record of the segments found on disk to the handler, oldest
+     * first. Unreadable records, such as one torn by a crash, are skipped. Returns the
+     * segments read, which stay on disk until deleted.
+     */
+    List<Path> replay(Consumer<String> handler) throws IOException {
+        Files.createDirectories(dir);
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(dir)) {
+            segments = files.filter(CartLog::isSegment)
+                    .sorted(Comparator.comparingLong(CartLog::sequenceOf))
+                    .toList();
+        }
+        for (Path segment : segments) {
+            sequence = Math.max(sequence, sequenceOf(segment));
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    try {
+                        handler.accept(line);
+                    } catch (RuntimeException e) {
+                        logger.warn("Skipping unreadable record in {}: {}", segment, e.getMessage());
+                    }
+                }
+            }
+        }
+        return segments;
+    }
+
+    synchronized void open() throws IOException {
+        Files.createDirectories(dir);
+        startSegment();
+    }
+
+    synchronized void append(String record) {
+        try {
+            writer.write(record);
+            writer.newLine();
+            writer.flush();
+            activeEmpty = false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to cart log " + active, e);
+        }
+    }
+
+    /**
+     * Seals the active segment if it has records and starts a new one. Returns
+     * every sealed segment not yet deleted, including those of failed flushes.
+     */
+    synchronized List<Path> rotate() {
+        if (!activeEmpty) {
+            try {
+                writer.close();
+                sealed.add(active);
+                startSegment();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not rotate cart log " + active, e);
+            }
+        }
+        return new ArrayList<>(sealed);
+    }
+
+    synchronized void delete(List<Path> segments) {
+        for (Path segment : segments) {
+            try {
+                Files.deleteIfExists(segment);
+                sealed.remove(segment);
+            } catch (IOException e) {
+                logger.warn("Could not delete cart log segment {}: {}", segment, e.getMessage());
+            }
+        }
+    }
+
+    synchronized void close() throws IOException {
+        writer.close();
+        if (activeEmpty) {
+            Files.deleteIfExists(active);
+        }
+    }
+
+    private void startSegment() throws IOException {
+        active = dir.resolve(PREFIX + (++sequence) + SUFFIX);
+        writer = Files.newBufferedWriter(active, StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE);
+        activeEmpty = true;
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX) && sequenceOf(path) > 0;
+    }
+
+    private static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.ecommerce.cart;
+
+import com.example.ecommerce.cache.CatalogVersion;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.service.ProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prices carts in long minor units (cents). Unit prices come from the current
+ * catalog; a cart's cached totals stay valid until the catalog version moves.
+ */
+@Component
+public class CartPricing {
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    long version() {
+        return catalogVersion.current();
+    }
+
+    // Current unit prices in cents; deleted products are left out
+    Map<Long, Long> unitCents(Collection<Long> productIds) {
+        Map<Long, Long> units = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            for (Product product : productService.findProductsById(productIds).values()) {
+                units.put(product.getId(), toCents(product.getPrice()));
+            }
+        }
+        return units;
+    }
+
+    // Prices the lines from scratch, for carts that keep no totals of their own
+    CartSnapshot price(Collection<CartLine> lines) {
+        List<CartLine> copy = new ArrayList<>(lines);
+        List<Long> productIds = new ArrayList<>(copy.size());
+        copy.forEach(line -> productIds.add(line.productId()));
+        Map<Long, Long> units = unitCents(productIds);
+        long subtotal = 0;
+        int itemCount = 0;
+        for (CartLine line : copy) {
+            Long unit = units.get(line.productId());
+            if (unit != null) {
+                subtotal = Math.addExact(subtotal, Math.multiplyExact(unit, (long) line.quantity()));
+                itemCount += line.quantity();
+            }
+        }
+        return new CartSnapshot(copy, units, subtotal, itemCount);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.ecommerce.cart;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lines of a cart with its totals in cents. Lines missing from unitCents
+ * belong to deleted products and are not part of the totals.
+ */
+public record CartSnapshot(List<CartLine> lines, Map<Long, Long> unitCents, long subtotalCents, int itemCount) {
+}
@@ -0,0 +1,164 @@
+package com.example.ecommerce.cart;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory cart of one user plus the changes not yet written to the
+ * database. Callers synchronize on the instance.
+ */
+final class CartState {
+    Long cartId;
+    // Version of the cart row this state was loaded from or last wrote
+    long version;
+    final Map<Long, CartLine> lines = new LinkedHashMap<>();
+    final Map<Long, CartLine> pending = new HashMap<>();
+    // Pending lines only added to since the last write, with the amount added
+    final Map<Long, Integer> added = new HashMap<>();
+    boolean clearPending;
+    int clearGeneration;
+    int conflicts;
+    // Totals in cents, kept up to date by every change while priced at the current catalog version
+    long pricedVersion = -1;
+    final Map<Long, Long> unitCents = new HashMap<>();
+    long subtotalCents;
+    int itemCount;
+    boolean evicted;
+    long lastAccess = System.currentTimeMillis();
+
+    CartState(Long cartId, long version) {
+        this.cartId = cartId;
+        this.version = version;
+    }
+
+    /**
+     * Records the line's new state. A delta marks an increase that can be
+     * written as one; any other change makes the line absolute until written.
+     */
+    void put(CartLine line, Integer delta) {
+        Long productId = line.productId();
+        if (delta != null && !clearPending && (!pending.containsKey(productId) || added.containsKey(productId))) {
+            added.merge(productId, delta, Integer::sum);
+        } else {
+            added.remove(productId);
+        }
+        if (pricedVersion >= 0) {
+            adjustTotals(lines.get(productId), line);
+        }
+        if (line.quantity() > 0) {
+            lines.put(productId, line);
+        } else {
+            lines.remove(productId);
+        }
+        pending.put(productId, line);
+    }
+
+    void clear() {
+        lines.clear();
+        pending.clear();
+        added.clear();
+        unitCents.clear();
+        subtotalCents = 0;
+        itemCount = 0;
+        clearPending = true;
+        clearGeneration++;
+    }
+
+    boolean isDirty() {
+        return clearPending || !pending.isEmpty();
+    }
+
+    // Swaps one line's contribution for its new one; a new line is priced at the price it was added with
+    private void adjustTotals(CartLine old, CartLine line) {
+        Long productId = line.productId();
+        Long unit = unitCents.get(productId);
+        if (old != null && unit != null) {
+            subtotalCents -= unit * old.quantity();
+            itemCount -= old.quantity();
+        }
+        if (old == null && line.price() != null) {
+            unit = CartPricing.toCents(line.price());
+        }
+        if (line.quantity() > 0 && unit != null) {
+            unitCents.put(productId, unit);
+            subtotalCents = Math.addExact(subtotalCents, Math.multiplyExact(unit, (long) line.quantity()));
+            itemCount += line.quantity();
+        } else {
+            unitCents.remove(productId);
+        }
+    }
+
+    // Full recomputation, needed once per cart whenever catalog prices may have changed
+    void reprice(long version, Map<Long, Long> units) {
+        unitCents.clear();
+        subtotalCents = 0;
+        itemCount = 0;
+        for (CartLine line : lines.values()) {
+            Long unit = units.get(line.productId());
+            if (unit != null) {
+                unitCents.put(line.productId(), unit);
+                subtotalCents = Math.addExact(subtotalCents, Math.multiplyExact(unit, (long) line.quantity()));
+                itemCount += line.quantity();
+            }
+        }
+        pricedVersion = version;
+    }
+
+    CartSnapshot snapshot() {
+        return new CartSnapshot(new ArrayList<>(lines.values()), new HashMap<>(unitCents), subtotalCents, itemCount);
+    }
+
+    CartChanges changes(Long userId, boolean force) {
+        List<CartChanges.LineChange> changes = new ArrayList<>(pending.size());
+        pending.forEach((productId, line) -> changes.add(new CartChanges.LineChange(line, added.get(productId))));
+        return new CartChanges(userId, cartId, version, force, clearPending, clearGeneration, changes);
+    }
+
+    // Drops the written changes, keeping whatever changed again while the write ran
+    void flushed(CartChanges changes, Long cartId, long version) {
+        this.cartId = cartId;
+        this.version = version;
+        conflicts = 0;
+        for (CartChanges.LineChange change : changes.lines()) {
+            Long productId = change.line().productId();
+            if (pending.remove(productId, change.line())) {
+                added.remove(productId);
+            } else if (change.added() != null) {
+                added.computeIfPresent(productId, (id, amount) -> amount - change.added());
+            }
+        }
+        if (changes.clear() && changes.clearGeneration() == clearGeneration) {
+            clearPending = false;
+        }
+    }
+
+    /**
+     * Someone else changed the cart row since it was loaded: takes the stored
+     * lines and version, then replays the pending changes on top of them.
+     */
+    void rebase(CartState stored) {
+        cartId = stored.cartId;
+        version = stored.version;
+        conflicts++;
+        pricedVersion = -1;
+        if (!clearPending) {
+            lines.clear();
+            lines.putAll(stored.lines);
+        }
+        pending.forEach((productId, line) -> {
+            Integer amount = added.get(productId);
+            CartLine current = lines.get(productId);
+            CartLine merged = amount == null ? line
+                    : current == null ? new CartLine(productId, amount, line.price())
+                    : new CartLine(productId, current.quantity() + amount, current.price());
+            if (merged.quantity() > 0) {
+                lines.put(productId, merged);
+            } else {
+                lines.remove(productId);
+            }
+        });
+    }
+}
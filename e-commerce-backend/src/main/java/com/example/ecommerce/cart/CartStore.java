@@ -0,0 +1,331 @@
+package com.example.ecommerce.cart;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind store of active carts, keyed by user id, with lines keyed by
+ * product id. Mutations change the in-memory cart and append a record to the
+ * {@link CartLog}; a background thread writes the changed lines of all dirty
+ * carts in one batch per interval. Log records hold absolute line state, so
+ * replaying a segment whose changes were already written is harmless.
+ * Increases are written as additions to the stored quantity; a cart whose row
+ * was changed elsewhere since it was loaded is rebased on the stored lines and
+ * retried on the next round. A write is never forced past the version check,
+ * since that would overwrite whatever the other writer stored.
+ */
+@Component
+public class CartStore {
+    private static final Logger logger = LoggerFactory.getLogger(CartStore.class);
+
+    // Conflicting writes of one cart in a row before it is reported as contended
+    private static final int WARN_CONFLICTS = 3;
+
+    // Closes every log record, so one cut short by a crash is recognisable
+    private static final String END = ";";
+
+    @Autowired
+    private CartWriter writer;
+
+    @Autowired
+    private CartPricing pricing;
+
+    @Value("${app.cart.logDir:cart-log}")
+    private String logDir;
+
+    @Value("${app.cart.flushIntervalMs:1000}")
+    private long flushIntervalMs;
+
+    @Value("${app.cart.idleSeconds:1800}")
+    private long idleSeconds;
+
+    private final Map<Long, CartState> carts = new ConcurrentHashMap<>();
+
+    // Mutations log under the read lock; the flusher rotates the log and swaps the dirty set under the write lock
+    private final ReentrantReadWriteLock logLock = new ReentrantReadWriteLock();
+    private Set<Long> dirtyUsers = ConcurrentHashMap.newKeySet();
+
+    private CartLog log;
+    private Thread flusher;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() throws IOException {
+        log = new CartLog(Path.of(logDir));
+        recover();
+        log.open();
+        running = true;
+        flusher = new Thread(this::flushLoop, "cart-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException, IOException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(10000);
+        log.close();
+    }
+
+    public CartSnapshot get(Long userId) {
+        return withCart(userId, state -> {
+        });
+    }
+
+    public CartSnapshot add(Long userId, Long productId, int quantity, BigDecimal price) {
+        return apply(userId, List.of(CartEdit.add(productId, quantity, price)));
+    }
+
+    // A quantity of zero or less removes the line
+    public CartSnapshot setQuantity(Long userId, Long productId, int quantity) {
+        return apply(userId, List.of(CartEdit.set(productId, quantity, null)));
+    }
+
+    public CartSnapshot remove(Long userId, Long productId) {
+        return setQuantity(userId, productId, 0);
+    }
+
+    /**
+     * Applies the edits in order as one unit. The resulting lines are worked
+     * out before anything is logged, so an edit that fails changes nothing, and
+     * they are logged with a single append.
+     */
+    public CartSnapshot apply(Long userId, List<CartEdit> edits) {
+        return withCart(userId, state -> {
+            Map<Long, CartLine> changed = new LinkedHashMap<>();
+            // Per line, the amount added when every edit in the batch was an increase
+            Map<Long, Integer> deltas = new HashMap<>();
+            for (CartEdit edit : edits) {
+                Long productId = edit.productId();
+                boolean seen = changed.containsKey(productId);
+                CartLine current = seen ? changed.get(productId) : state.lines.get(productId);
+                int currentQuantity = current != null ? current.quantity() : 0;
+                int quantity = Math.max(0, edit.relative()
+                        ? Math.addExact(currentQuantity, edit.quantity())
+                        : edit.quantity());
+                if (currentQuantity == 0 && quantity == 0) {
+                    continue;
+                }
+                if (currentQuantity == 0 && edit.price() == null) {
+                    throw new RuntimeException("Item not found");
+                }
+                changed.put(productId, new CartLine(productId, quantity,
+                        current != null ? current.price() : edit.price()));
+                if (edit.relative() && edit.quantity() > 0 && (!seen || deltas.containsKey(productId))) {
+                    deltas.merge(productId, edit.quantity(), Integer::sum);
+                } else {
+                    deltas.remove(productId);
+                }
+            }
+            put(userId, state, changed.values(), deltas);
+        });
+    }
+
+    public void clear(Long userId) {
+        withCart(userId, state -> {
+            if (state.lines.isEmpty() && !state.isDirty()) {
+                return;
+            }
+            logLock.readLock().lock();
+            try {
+                log.append("C " + userId + " " + END);
+                state.clear();
+                dirtyUsers.add(userId);
+            } finally {
+                logLock.readLock().unlock();
+            }
+        });
+    }
+
+    // Runs the edits under the cart's lock and returns the resulting lines, priced
+    private CartSnapshot withCart(Long userId, Consumer<CartState> edits) {
+        while (true) {
+            CartState state = carts.get(userId);
+            if (state == null) {
+                CartState loaded = writer.load(userId);
+                state = carts.putIfAbsent(userId, loaded);
+                if (state == null) {
+                    state = loaded;
+                }
+            }
+            synchronized (state) {
+                // Evicted between lookup and lock: load it again
+                if (state.evicted) {
+                    continue;
+                }
+                state.lastAccess = System.currentTimeMillis();
+                edits.accept(state);
+                // Read the version before the prices, so a concurrent change can only cause an extra repricing
+                long version = pricing.version();
+                if (state.pricedVersion != version) {
+                    state.reprice(version, pricing.unitCents(state.lines.keySet()));
+                }
+                return state.snapshot();
+            }
+        }
+    }
+
+    private void put(Long userId, CartState state, Collection<CartLine> lines, Map<Long, Integer> deltas) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        StringBuilder records = new StringBuilder();
+        for (CartLine line : lines) {
+            if (!records.isEmpty()) {
+                records.append('\n');
+            }
+            records.append("S ").append(userId).append(' ').append(line.productId()).append(' ')
+                    .append(line.quantity()).append(' ')
+                    .append(line.price() != null ? line.price().toPlainString() : "-").append(' ').append(END);
+        }
+        logLock.readLock().lock();
+        try {
+            log.append(records.toString());
+            for (CartLine line : lines) {
+                state.put(line, deltas.get(line.productId()));
+            }
+            dirtyUsers.add(userId);
+        } finally {
+            logLock.readLock().unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (running) {
+            try {
+                Thread.sleep(flushIntervalMs);
+            } catch (InterruptedException e) {
+                // Shutting down: write what is pending, then exit
+            }
+            flush();
+            evictIdle();
+        }
+    }
+
+    private void flush() {
+        List<Path> segments;
+        Set<Long> users;
+        logLock.writeLock().lock();
+        try {
+            segments = log.rotate();
+            users = dirtyUsers;
+            dirtyUsers = ConcurrentHashMap.newKeySet();
+        } finally {
+            logLock.writeLock().unlock();
+        }
+        if (users.isEmpty()) {
+            log.delete(segments);
+            return;
+        }
+
+        List<CartChanges> changes = new ArrayList<>(users.size());
+        for (Long userId : users) {
+            CartState state = carts.get(userId);
+            if (state != null) {
+                synchronized (state) {
+                    if (state.isDirty()) {
+                        changes.add(state.changes(userId, false));
+                    }
+                }
+            }
+        }
+        try {
+            Map<Long, CartWriter.Written> written = changes.isEmpty() ? Map.of() : writer.write(changes);
+            for (CartChanges cart : changes) {
+                CartState state = carts.get(cart.userId());
+                CartWriter.Written result = written.get(cart.userId());
+                if (result != null) {
+                    synchronized (state) {
+                        state.flushed(cart, result.cartId(), result.version());
+                    }
+                } else {
+                    // Changed elsewhere since it was loaded: rebase on the stored cart and retry next round
+                    CartState stored = writer.load(cart.userId());
+                    int conflicts;
+                    synchronized (state) {
+                        state.rebase(stored);
+                        conflicts = state.conflicts;
+                    }
+                    dirtyUsers.add(cart.userId());
+                    if (conflicts == WARN_CONFLICTS) {
+                        logger.warn("Cart of user {} conflicted {} times in a row; still rebasing and retrying",
+                                cart.userId(), conflicts);
+                    }
+                }
+            }
+            // Segments can only go once every change they recorded is stored
+            if (written.size() == changes.size()) {
+                log.delete(segments);
+            }
+        } catch (RuntimeException e) {
+            // Keep the segments and retry these carts on the next round
+            logger.error("Could not write {} carts: {}", changes.size(), e.getMessage());
+            dirtyUsers.addAll(users);
+        }
+    }
+
+    // Only clean carts are dropped, so the database already holds what they contain
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleSeconds * 1000;
+        carts.forEach((userId, state) -> {
+            synchronized (state) {
+                if (state.lastAccess < cutoff && !state.isDirty()) {
+                    state.evicted = true;
+                    carts.remove(userId, state);
+                }
+            }
+        });
+    }
+
+    // Writes whatever the log segments left on disk recorded before the store opens
+    private void recover() throws IOException {
+        Map<Long, CartState> recovered = new HashMap<>();
+        List<Path> segments = log.replay(record -> {
+            String[] fields = record.split(" ");
+            if (!END.equals(fields[fields.length - 1])) {
+                throw new IllegalArgumentException("Truncated record '" + record + "'");
+            }
+            Long userId = Long.parseLong(fields[1]);
+            if ("C".equals(fields[0]) && fields.length == 3) {
+                recovered.computeIfAbsent(userId, id -> new CartState(null, 0)).clear();
+            } else if ("S".equals(fields[0]) && fields.length == 6) {
+                CartLine line = new CartLine(Long.parseLong(fields[2]), Integer.parseInt(fields[3]),
+                        "-".equals(fields[4]) ? null : new BigDecimal(fields[4]));
+                recovered.computeIfAbsent(userId, id -> new CartState(null, 0)).put(line, null);
+            } else {
+                throw new IllegalArgumentException("Malformed record '" + record + "'");
+            }
+        });
+        if (segments.isEmpty()) {
+            return;
+        }
+
+        List<CartChanges> changes = new ArrayList<>(recovered.size());
+        recovered.forEach((userId, state) -> changes.add(state.changes(userId, true)));
+        if (!changes.isEmpty()) {
+            writer.write(changes);
+        }
+        log.delete(segments);
+        logger.info("Recovered {} carts from {} cart log segments", changes.size(), segments.size());
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.ecommerce.cart;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads carts from and writes batches of cart changes to the cart and
+ * cart_items tables with plain JDBC.
+ */
+@Component
+class CartWriter {
+    private static final int ID_CHUNK = 1000;
+
+    // Selecting from products skips lines whose product was deleted meanwhile instead of failing the batch
+    private static final String UPSERT_LINE_SQL = "insert into cart_items (cart_id, product_id, quantity, price) "
+            + "select ?, id, ?, ? from products where id = ? on duplicate key update quantity = values(quantity)";
+
+    // Increases commute, so they are added to whatever the row holds instead of overwriting it
+    private static final String ADD_TO_LINE_SQL = "insert into cart_items (cart_id, product_id, quantity, price) "
+            + "select ?, id, ?, ? from products where id = ? "
+            + "on duplicate key update quantity = quantity + values(quantity)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    CartState load(Long userId) {
+        CartState state = new CartState(null, 0);
+        jdbcTemplate.query("select c.id, c.version, ci.product_id, ci.quantity, ci.price from cart c "
+                + "left join cart_items ci on ci.cart_id = c.id where c.user_id = ? order by ci.id", rs -> {
+                    state.cartId = rs.getLong(1);
+                    state.version = rs.getLong(2);
+                    long productId = rs.getLong(3);
+                    if (!rs.wasNull()) {
+                        state.lines.put(productId, new CartLine(productId, rs.getInt(4), rs.getBigDecimal(5)));
+                    }
+                }, userId);
+        return state;
+    }
+
+    /**
+     * Writes all changes in one transaction, creating cart rows as needed. A
+     * cart whose row moved past the expected version is skipped; the result
+     * holds the new id and version of every cart that was written.
+     */
+    Map<Long, Written> write(List<CartChanges> changes) {
+        return transactionTemplate.execute(status -> {
+            Map<Long, Long> cartIds = resolveCartIds(changes);
+            List<CartChanges> accepted = bumpVersions(changes, cartIds);
+
+            List<Object[]> clears = new ArrayList<>();
+            List<Object[]> deletes = new ArrayList<>();
+            List<Object[]> upserts = new ArrayList<>();
+            List<Object[]> additions = new ArrayList<>();
+            for (CartChanges cart : accepted) {
+                Long cartId = cartIds.get(cart.userId());
+                if (cart.clear()) {
+                    clears.add(new Object[] { cartId });
+                }
+                for (CartChanges.LineChange change : cart.lines()) {
+                    CartLine line = change.line();
+                    if (change.added() != null) {
+                        additions.add(new Object[] { cartId, change.added(), line.price(), line.productId() });
+                    } else if (line.quantity() > 0) {
+                        upserts.add(new Object[] { cartId, line.quantity(), line.price(), line.productId() });
+                    } else {
+                        deletes.add(new Object[] { cartId, line.productId() });
+                    }
+                }
+            }
+            if (!clears.isEmpty()) {
+                jdbcTemplate.batchUpdate("delete from cart_items where cart_id = ?", clears);
+            }
+            if (!deletes.isEmpty()) {
+                jdbcTemplate.batchUpdate("delete from cart_items where cart_id = ? and product_id = ?", deletes);
+            }
+            if (!upserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_LINE_SQL, upserts);
+            }
+            if (!additions.isEmpty()) {
+                jdbcTemplate.batchUpdate(ADD_TO_LINE_SQL, additions);
+            }
+
+            Map<Long, Written> written = new HashMap<>();
+            if (!accepted.isEmpty()) {
+                Map<Long, Long> versions = selectVersions(accepted.stream().map(c -> cartIds.get(c.userId())).toList());
+                for (CartChanges cart : accepted) {
+                    Long cartId = cartIds.get(cart.userId());
+                    written.put(cart.userId(), new Written(cartId, versions.get(cartId)));
+                }
+            }
+            return written;
+        });
+    }
+
+    /**
+     * Bumps the version of every cart row, conditionally on the version the
+     * changes were made against unless they are forced or the row is new to
+     * this store. Returns the changes whose bump went through.
+     */
+    private List<CartChanges> bumpVersions(List<CartChanges> changes, Map<Long, Long> cartIds) {
+        List<CartChanges> checked = new ArrayList<>();
+        List<Object[]> checkedArgs = new ArrayList<>();
+        List<Object[]> unconditional = new ArrayList<>();
+        List<CartChanges> accepted = new ArrayList<>();
+        for (CartChanges cart : changes) {
+            if (cart.cartId() == null || cart.force()) {
+                unconditional.add(new Object[] { cartIds.get(cart.userId()) });
+                accepted.add(cart);
+            } else {
+                checked.add(cart);
+                checkedArgs.add(new Object[] { cart.cartId(), cart.version() });
+            }
+        }
+        if (!unconditional.isEmpty()) {
+            jdbcTemplate.batchUpdate("update cart set version = version + 1 where id = ?", unconditional);
+        }
+        if (!checked.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate(
+                    "update cart set version = version + 1 where id = ? and version = ?", checkedArgs);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    accepted.add(checked.get(i));
+                }
+            }
+        }
+        return accepted;
+    }
+
+    private Map<Long, Long> selectVersions(List<Long> cartIds) {
+        Map<Long, Long> versions = new HashMap<>();
+        for (int from = 0; from < cartIds.size(); from += ID_CHUNK) {
+            List<Long> chunk = cartIds.subList(from, Math.min(from + ID_CHUNK, cartIds.size()));
+            String sql = "select id, version from cart where id in (" + "?, ".repeat(chunk.size() - 1) + "?)";
+            jdbcTemplate.query(sql, rs -> {
+                versions.put(rs.getLong(1), rs.getLong(2));
+            }, chunk.toArray());
+        }
+        return versions;
+    }
+
+    private Map<Long, Long> resolveCartIds(List<CartChanges> changes) {
+        Map<Long, Long> cartIds = new HashMap<>();
+        List<Long> unknown = new ArrayList<>();
+        for (CartChanges cart : changes) {
+            if (cart.cartId() != null) {
+                cartIds.put(cart.userId(), cart.cartId());
+            } else {
+                unknown.add(cart.userId());
+            }
+        }
+        if (unknown.isEmpty()) {
+            return cartIds;
+        }
+
+        selectCartIds(unknown, cartIds);
+        List<Object[]> missing = new ArrayList<>();
+        for (Long userId : unknown) {
+            if (!cartIds.containsKey(userId)) {
+                missing.add(new Object[] { userId });
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into cart (user_id) values (?)", missing);
+            selectCartIds(missing.stream().map(args -> (Long) args[0]).toList(), cartIds);
+        }
+        return cartIds;
+    }
+
+    private void selectCartIds(List<Long> userIds, Map<Long, Long> cartIds) {
+        for (int from = 0; from < userIds.size(); from += ID_CHUNK) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + ID_CHUNK, userIds.size()));
+            String sql = "select user_id, id from cart where user_id in (" + "?, ".repeat(chunk.size() - 1) + "?)";
+            jdbcTemplate.query(sql, rs -> {
+                cartIds.put(rs.getLong(1), rs.getLong(2));
+            }, chunk.toArray());
+        }
+    }
+
+    record Written(Long cartId, long version) {
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.ecommerce.cart;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Carts of anonymous shoppers, held only in memory and keyed by an opaque
+ * random token. Both the number of carts and the lines per cart are capped.
+ * A cart expires once it has not been used for the configured time; expiry
+ * runs off a {@link TimingWheel}, so using a cart only moves its deadline and
+ * nothing ever scans all carts. Guest carts never touch the cart tables; they
+ * reach the database only when merged into a user's cart on login.
+ */
+@Component
+public class GuestCartStore {
+    private static final int TOKEN_BYTES = 18;
+    private static final int WHEEL_SLOTS = 512;
+
+    private static final CartSnapshot EMPTY = new CartSnapshot(List.of(), Map.of(), 0, 0);
+
+    @Autowired
+    private CartPricing pricing;
+
+    @Value("${app.cart.guest.maxCarts:50000}")
+    private int maxCarts;
+
+    @Value("${app.cart.guest.maxLines:50}")
+    private int maxLines;
+
+    @Value("${app.cart.guest.ttlSeconds:86400}")
+    private long ttlSeconds;
+
+    @Value("${app.cart.guest.tickMs:1000}")
+    private long tickMs;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, GuestCart> carts = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    // Guarded by itself; a cart's lock may be taken while holding it, never the other way round
+    private TimingWheel<String> wheel;
+    private Thread reaper;
+    private volatile boolean running;
+
+    /**
+     * Token and lines of a guest cart after a change. The token is null when
+     * the change left the cart empty, which drops it.
+     */
+    public record Result(String token, CartSnapshot cart) {
+    }
+
+    @PostConstruct
+    public void init() {
+        wheel = new TimingWheel<>(tickMs, WHEEL_SLOTS, System.currentTimeMillis());
+        running = true;
+        reaper = new Thread(this::expireLoop, "guest-cart-expiry");
+        reaper.setDaemon(true);
+        reaper.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        reaper.interrupt();
+        reaper.join(5000);
+    }
+
+    // An unknown or expired token reads as an empty cart; nothing is created
+    public CartSnapshot get(String token) {
+        GuestCart cart = token != null ? carts.get(token) : null;
+        if (cart == null) {
+            return EMPTY;
+        }
+        List<CartLine> lines;
+        synchronized (cart) {
+            if (cart.removed) {
+                return EMPTY;
+            }
+            cart.expiresAt = System.currentTimeMillis() + ttlSeconds * 1000;
+            lines = new ArrayList<>(cart.lines.values());
+        }
+        return pricing.price(lines);
+    }
+
+    /**
+     * Applies the edits in order as one unit, like {@link CartStore#apply}.
+     * Without a live cart for the token, a new cart with a new token is
+     * created, but only if the edits leave something in it.
+     */
+    public Result apply(String token, List<CartEdit> edits) {
+        GuestCart cart = token != null ? carts.get(token) : null;
+        if (cart != null) {
+            synchronized (cart) {
+                if (!cart.removed) {
+                    Map<Long, CartLine> lines = edited(cart.lines, edits);
+                    if (lines.isEmpty()) {
+                        remove(token, cart);
+                        return new Result(null, EMPTY);
+                    }
+                    cart.lines = lines;
+                    cart.expiresAt = System.currentTimeMillis() + ttlSeconds * 1000;
+                    return new Result(token, pricing.price(lines.values()));
+                }
+            }
+        }
+
+        // Expired or never existed: start over under a fresh token
+        Map<Long, CartLine> lines = edited(Map.of(), edits);
+        if (lines.isEmpty()) {
+            return new Result(null, EMPTY);
+        }
+        if (size.incrementAndGet() > maxCarts) {
+            size.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many guest carts, please log in");
+        }
+        String newToken = newToken();
+        long expiresAt = System.currentTimeMillis() + ttlSeconds * 1000;
+        carts.put(newToken, new GuestCart(lines, expiresAt));
+        synchronized (wheel) {
+            wheel.schedule(newToken, expiresAt);
+        }
+        return new Result(newToken, pricing.price(lines.values()));
+    }
+
+    // Removes the cart and returns its lines, e.g. to merge them into a user's cart
+    public List<CartLine> take(String token) {
+        GuestCart cart = token != null ? carts.get(token) : null;
+        if (cart == null) {
+            return List.of();
+        }
+        synchronized (cart) {
+            if (cart.removed) {
+                return List.of();
+            }
+            remove(token, cart);
+            return new ArrayList<>(cart.lines.values());
+        }
+    }
+
+    /**
+     * Puts lines returned by {@link #take} back under the same token, e.g.
+     * when merging them failed. The cart was counted moments ago, so the
+     * limit on live carts does not apply. Does nothing if the token has come
+     * back into use meanwhile.
+     */
+    public void restore(String token, List<CartLine> lines) {
+        if (token == null || lines.isEmpty()) {
+            return;
+        }
+        Map<Long, CartLine> restored = new LinkedHashMap<>();
+        for (CartLine line : lines) {
+            restored.put(line.productId(), line);
+        }
+        long expiresAt = System.currentTimeMillis() + ttlSeconds * 1000;
+        if (carts.putIfAbsent(token, new GuestCart(restored, expiresAt)) == null) {
+            size.incrementAndGet();
+            synchronized (wheel) {
+                wheel.schedule(token, expiresAt);
+            }
+        }
+    }
+
+    private Map<Long, CartLine> edited(Map<Long, CartLine> current, List<CartEdit> edits) {
+        Map<Long, CartLine> lines = new LinkedHashMap<>(current);
+        for (CartEdit edit : edits) {
+            CartLine line = lines.get(edit.productId());
+            int currentQuantity = line != null ? line.quantity() : 0;
+            int quantity = Math.max(0, edit.relative()
+                    ? Math.addExact(currentQuantity, edit.quantity())
+                    : edit.quantity());
+            if (currentQuantity == 0 && quantity == 0) {
+                continue;
+            }
+            if (currentQuantity == 0 && edit.price() == null) {
+                throw new RuntimeException("Item not found");
+            }
+            if (quantity > 0) {
+                lines.put(edit.productId(), new CartLine(edit.productId(), quantity,
+                        line != null ? line.price() : edit.price()));
+            } else {
+                lines.remove(edit.productId());
+            }
+        }
+        if (lines.size() > maxLines) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A guest cart holds at most " + maxLines + " products");
+        }
+        return lines;
+    }
+
+    private void remove(String token, GuestCart cart) {
+        cart.removed = true;
+        if (carts.remove(token, cart)) {
+            size.decrementAndGet();
+        }
+    }
+
+    private void expireLoop() {
+        while (running) {
+            try {
+                Thread.sleep(tickMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            synchronized (wheel) {
+                wheel.advance(now, token -> expire(token, now));
+            }
+        }
+    }
+
+    // Called with the wheel held; a cart used since it was scheduled goes back in at its new deadline
+    private void expire(String token, long now) {
+        GuestCart cart = carts.get(token);
+        if (cart == null) {
+            return;
+        }
+        synchronized (cart) {
+            if (cart.removed) {
+                return;
+            }
+            if (cart.expiresAt > now) {
+                wheel.schedule(token, cart.expiresAt);
+            } else {
+                remove(token, cart);
+            }
+        }
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    // Callers synchronize on the instance
+    private static final class GuestCart {
+        Map<Long, CartLine> lines;
+        long expiresAt;
+        boolean removed;
+
+        GuestCart(Map<Long, CartLine> lines, long expiresAt) {
+            this.lines = lines;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.ecommerce.cart;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: a ring of slots, one per tick, where a deadline lands
+ * in the slot of its tick modulo the ring size. Scheduling is constant time
+ * and advancing only looks at the slots of the ticks that passed, never at
+ * every scheduled key. Deadlines further out than one turn stay in their slot
+ * until the turn they fall in. Not thread-safe.
+ */
+final class TimingWheel<K> {
+    private final long tickMs;
+    private final List<Entry<K>>[] slots;
+    // Last tick whose slot has been expired
+    private long tick;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TimingWheel(long tickMs, int slotCount, long now) {
+        this.tickMs = tickMs;
+        this.slots = new List[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new ArrayList<>();
+        }
+        this.tick = now / tickMs;
+    }
+
+    // Rounded up to whole ticks, so a key never fires early; one already due fires on the next advance
+    void schedule(K key, long deadline) {
+        long due = Math.max((deadline + tickMs - 1) / tickMs, tick + 1);
+        slots[(int) (due % slots.length)].add(new Entry<>(key, due));
+    }
+
+    // Hands every key whose deadline passed by now to the consumer, in tick order
+    void advance(long now, Consumer<K> expired) {
+        long target = now / tickMs;
+        // A long pause needs at most one full turn to cover every slot
+        long from = Math.max(tick + 1, target - slots.length + 1);
+        List<K> due = new ArrayList<>();
+        for (long t = from; t <= target; t++) {
+            Iterator<Entry<K>> it = slots[(int) (t % slots.length)].iterator();
+            while (it.hasNext()) {
+                Entry<K> entry = it.next();
+                if (entry.due() <= target) {
+                    it.remove();
+                    due.add(entry.key());
+                }
+            }
+        }
+        tick = Math.max(tick, target);
+        due.forEach(expired);
+    }
+
+    private record Entry<K>(K key, long due) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.cache.CatalogVersion;
+import com.example.ecommerce.cache.RenderedPageCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Tags {@link CatalogETag} responses with the catalog version and answers a
+ * matching If-None-Match with 304 without invoking the handler, so unchanged
+ * reads touch neither the database nor Jackson.
+ */
+@Component
+public class CatalogETagInterceptor implements HandlerInterceptor {
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method) || !method.hasMethodAnnotation(CatalogETag.class)) {
+            return true;
+        }
+        // Read before the handler runs: a concurrent write can only make the body newer than its tag
+        String etag = catalogVersion.etag(RenderedPageCache.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING)));
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+}
@@ -7,27 +7,37 @@ import com.example.ecommerce.entity.Role;
 import com.example.ecommerce.entity.User;
 import com.example.ecommerce.repository.RoleRepository;
 import com.example.ecommerce.repository.UserRepository;
+import com.example.ecommerce.security.PasswordHashingExecutor;
 import com.example.ecommerce.security.jwt.JwtUtils;
+import com.example.ecommerce.security.services.CurrentUser;
+import com.example.ecommerce.security.services.TokenVersionService;
 import com.example.ecommerce.security.services.UserDetailsImpl;
+import com.example.ecommerce.service.CartService;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
+    private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
+
     @Autowired
     AuthenticationManager authenticationManager;
 
@@ -43,13 +53,45 @@ public class AuthController {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    CartService cartService;
+
+    @Autowired
+    TokenVersionService tokenVersionService;
+
+    // Spring Boot's general task pool; database work after hashing goes here so it never holds a hashing thread
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    Executor applicationTaskExecutor;
+
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+        // BCrypt verification runs on the hashing pool, not the request thread
+        return passwordHashingExecutor.submit(() -> authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())))
+                .thenApplyAsync(authentication -> {
+                    mergeGuestCart(authentication, loginRequest.getCartToken());
+                    return buildJwtResponse(authentication);
+                }, applicationTaskExecutor);
+    }
 
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
+    // The login still succeeds when the guest cart cannot be merged
+    private void mergeGuestCart(Authentication authentication, String cartToken) {
+        if (cartToken == null) {
+            return;
+        }
+        Long userId = ((UserDetailsImpl) authentication.getPrincipal()).getId();
+        try {
+            cartService.mergeGuestCart(userId, cartToken);
+        } catch (RuntimeException e) {
+            logger.error("Could not merge guest cart into the cart of user {}: {}", userId, e.getMessage());
+        }
+    }
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+    private ResponseEntity<?> buildJwtResponse(Authentication authentication) {
         String jwt = jwtUtils.generateJwtToken(authentication);
 
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
@@ -64,19 +106,31 @@ public class AuthController {
                 roles));
     }
 
+    // Tokens are stateless, so logging out revokes every token the user holds, on all devices
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout() {
+        tokenVersionService.revokeTokens(CurrentUser.getId());
+        return ResponseEntity.ok("Logged out successfully!");
+    }
+
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest signUpRequest) {
+    public CompletableFuture<ResponseEntity<?>> registerUser(@Valid @RequestBody RegisterRequest signUpRequest) {
         if (userRepository.existsByEmail(signUpRequest.getEmail())) {
-            return ResponseEntity
+            return CompletableFuture.completedFuture(ResponseEntity
                     .badRequest()
-                    .body("Error: Email is already in use!");
+                    .body("Error: Email is already in use!"));
         }
 
+        return passwordHashingExecutor.submit(() -> encoder.encode(signUpRequest.getPassword()))
+                .thenApplyAsync(encodedPassword -> createUser(signUpRequest, encodedPassword), applicationTaskExecutor);
+    }
+
+    private ResponseEntity<?> createUser(RegisterRequest signUpRequest, String encodedPassword) {
         // Create new user's account
         User user = new User();
         user.setName(signUpRequest.getName());
         user.setEmail(signUpRequest.getEmail());
-        user.setPassword(encoder.encode(signUpRequest.getPassword()));
+        user.setPassword(encodedPassword);
         user.setPhone(signUpRequest.getPhone());
 
         Set<String> strRoles = signUpRequest.getRole();
@@ -1,39 +1,65 @@
 package com.example.ecommerce.controller;
 
-import com.example.ecommerce.entity.Cart;
+import com.example.ecommerce.dto.CartOperation;
+import com.example.ecommerce.dto.CartView;
+import com.example.ecommerce.dto.GuestCartView;
+import com.example.ecommerce.security.services.CurrentUser;
 import com.example.ecommerce.service.CartService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/cart")
 public class CartController {
+    static final String CART_TOKEN_HEADER = "X-Cart-Token";
+
     @Autowired
     private CartService cartService;
 
-    private String getCurrentUserEmail() {
-        return SecurityContextHolder.getContext().getAuthentication().getName();
+    private Long getCurrentUserId() {
+        return CurrentUser.getId();
     }
 
     @GetMapping
-    public Cart getCart() {
-        return cartService.getCartByUserEmail(getCurrentUserEmail());
+    public CartView getCart() {
+        return cartService.getCart(getCurrentUserId());
     }
 
     @PostMapping("/add")
-    public Cart addToCart(@RequestParam Long productId, @RequestParam int quantity) {
-        return cartService.addToCart(getCurrentUserEmail(), productId, quantity);
+    public CartView addToCart(@RequestParam Long productId, @RequestParam int quantity) {
+        return cartService.addToCart(getCurrentUserId(), productId, quantity);
+    }
+
+    // Applies a list of ADD/SET/REMOVE operations at once and returns the cart once
+    @PostMapping("/batch")
+    public CartView applyOperations(@RequestBody List<CartOperation> operations) {
+        return cartService.applyOperations(getCurrentUserId(), operations);
+    }
+
+    // Cart lines are addressed by product id
+    @PutMapping("/item/{productId}")
+    public CartView updateQuantity(@PathVariable Long productId, @RequestParam int quantity) {
+        return cartService.updateQuantity(getCurrentUserId(), productId, quantity);
+    }
+
+    @DeleteMapping("/item/{productId}")
+    public CartView removeFromCart(@PathVariable Long productId) {
+        return cartService.removeFromCart(getCurrentUserId(), productId);
     }
 
-    @PutMapping("/item/{itemId}")
-    public Cart updateQuantity(@PathVariable Long itemId, @RequestParam int quantity) {
-        return cartService.updateQuantity(getCurrentUserEmail(), itemId, quantity);
+    // Anonymous carts, addressed by the token from the previous guest cart response
+    @GetMapping("/guest")
+    public GuestCartView getGuestCart(@RequestHeader(value = CART_TOKEN_HEADER, required = false) String token) {
+        return cartService.getGuestCart(token);
     }
 
-    @DeleteMapping("/item/{itemId}")
-    public Cart removeFromCart(@PathVariable Long itemId) {
-        return cartService.removeFromCart(getCurrentUserEmail(), itemId);
+    @PostMapping("/guest/batch")
+    public GuestCartView applyGuestOperations(
+            @RequestHeader(value = CART_TOKEN_HEADER, required = false) String token,
+            @RequestBody List<CartOperation> operations) {
+        return cartService.applyGuestOperations(token, operations);
     }
 }
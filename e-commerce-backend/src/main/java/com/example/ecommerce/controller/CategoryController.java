@@ -1,5 +1,7 @@
 package com.example.ecommerce.controller;
 
+import com.example.ecommerce.cache.CategoryTree;
+import com.example.ecommerce.config.CatalogETag;
 import com.example.ecommerce.entity.Category;
 import com.example.ecommerce.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,11 +17,19 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    @CatalogETag
     @GetMapping
     public List<Category> getAllCategories() {
         return categoryService.getAllCategories();
     }
 
+    // Served from memory; rebuilt whenever a category is added or deleted
+    @CatalogETag
+    @GetMapping("/tree")
+    public List<CategoryTree.Node> getCategoryTree() {
+        return categoryService.getCategoryTree();
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public Category addCategory(@RequestBody Category category) {
@@ -1,10 +1,11 @@
 package com.example.ecommerce.controller;
 
+import com.example.ecommerce.dto.CursorPage;
 import com.example.ecommerce.dto.OrderRequest;
 import com.example.ecommerce.entity.Order;
+import com.example.ecommerce.security.services.CurrentUser;
 import com.example.ecommerce.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -16,28 +17,35 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
-    private String getCurrentUserEmail() {
-        return SecurityContextHolder.getContext().getAuthentication().getName();
+    private Long getCurrentUserId() {
+        return CurrentUser.getId();
     }
 
     @PostMapping
     public Order placeOrder(@RequestBody OrderRequest orderRequest) {
-        return orderService.placeOrder(getCurrentUserEmail(), orderRequest);
+        return orderService.placeOrder(getCurrentUserId(), orderRequest);
     }
 
     @GetMapping
     public List<Order> getUserOrders() {
-        return orderService.getUserOrders(getCurrentUserEmail());
+        return orderService.getUserOrders(getCurrentUserId());
+    }
+
+    // Opt-in keyset pagination: pass an empty cursor for the first page
+    @GetMapping(params = "cursor")
+    public CursorPage<Order> getUserOrdersByCursor(@RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return orderService.getUserOrdersByCursor(getCurrentUserId(), cursor, size);
     }
 
     @GetMapping("/{id}")
     public Order getOrderById(@PathVariable Long id) {
-        return orderService.getOrderById(getCurrentUserEmail(), id);
+        return orderService.getOrderById(getCurrentUserId(), id);
     }
 
     @PutMapping("/{id}/cancel")
     public Order cancelOrder(@PathVariable Long id) {
-        return orderService.cancelOrder(getCurrentUserEmail(), id);
+        return orderService.cancelOrder(getCurrentUserId(), id);
     }
 
     // Admin endpoints
@@ -47,6 +55,13 @@ public class OrderController {
         return orderService.getAllOrders();
     }
 
+    @GetMapping(value = "/all", params = "cursor")
+    @org.springframework.security.access.prepost.PreAuthorize("hasRole('ADMIN')")
+    public CursorPage<Order> getAllOrdersByCursor(@RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return orderService.getAllOrdersByCursor(cursor, size);
+    }
+
     @PutMapping("/{id}/status")
     @org.springframework.security.access.prepost.PreAuthorize("hasRole('ADMIN')")
     public Order updateOrderStatus(@PathVariable Long id, @RequestBody java.util.Map<String, String> statusUpdate) {
@@ -1,50 +1,192 @@
 package com.example.ecommerce.controller;
 
+import com.example.ecommerce.cache.RenderedPageCache;
+import com.example.ecommerce.config.CatalogETag;
+import com.example.ecommerce.dto.BulkUpdateReport;
+import com.example.ecommerce.dto.CursorPage;
+import com.example.ecommerce.dto.ProductBulkUpdate;
+import com.example.ecommerce.dto.ProductImportReport;
+import com.example.ecommerce.dto.ProductFacetResponse;
+import com.example.ecommerce.dto.ProductPatch;
+import com.example.ecommerce.dto.ProductSummary;
 import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.search.Suggestion;
+import com.example.ecommerce.service.ProductBulkUpdateService;
+import com.example.ecommerce.service.ProductImportService;
 import com.example.ecommerce.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.List;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private RenderedPageCache renderedPages;
+
+    @Autowired
+    private ProductImportService importService;
+
+    @Autowired
+    private ProductBulkUpdateService bulkUpdateService;
+
+    @CatalogETag
     @GetMapping
-    public Page<Product> getAllProducts(Pageable pageable) {
-        return productService.getAllProducts(pageable);
+    public ResponseEntity<?> getAllProducts(Pageable pageable,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return renderedPages.render("products", pageable, acceptEncoding,
+                () -> productService.getAllProducts(pageable));
     }
 
+    // Opt-in keyset pagination: pass an empty cursor for the first page
+    @CatalogETag
+    @GetMapping(params = "cursor")
+    public CursorPage<ProductSummary> getProductsByCursor(@RequestParam String cursor,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "20") int size) {
+        return productService.getProductsByCursor(cursor, sort, null, size);
+    }
+
+    @CatalogETag
+    @GetMapping("/category/{categoryId}")
+    public ResponseEntity<?> getProductsByCategory(@PathVariable Long categoryId, Pageable pageable,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return renderedPages.render("products/category/" + categoryId, pageable, acceptEncoding,
+                () -> productService.getProductsByCategory(categoryId, pageable));
+    }
+
+    @CatalogETag
+    @GetMapping(value = "/category/{categoryId}", params = "cursor")
+    public CursorPage<ProductSummary> getProductsByCategoryCursor(@PathVariable Long categoryId,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "20") int size) {
+        return productService.getProductsByCursor(cursor, sort, categoryId, size);
+    }
+
+    // Tagged with the product's own version; a near-cache hit answers 304 without the database
     @GetMapping("/{id}")
-    public Product getProductById(@PathVariable Long id) {
-        return productService.getProductById(id);
+    public ResponseEntity<Product> getProductById(@PathVariable Long id, WebRequest request) {
+        Product product = productService.getProductById(id);
+        String etag = productETag(id, product.getVersion());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag).body(product);
     }
 
+    @CatalogETag
     @GetMapping("/search")
-    public Page<Product> searchProducts(@RequestParam String keyword, Pageable pageable) {
+    public Page<ProductSummary> searchProducts(@RequestParam String keyword, Pageable pageable) {
         return productService.searchProducts(keyword, pageable);
     }
 
+    @CatalogETag
+    @GetMapping("/browse")
+    public ProductFacetResponse browseProducts(@RequestParam(required = false) List<Long> categoryId,
+            @RequestParam(required = false) List<Integer> priceBucket,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return productService.browseProducts(categoryId, priceBucket, inStock, page, size);
+    }
+
+    @CatalogETag
+    @GetMapping("/suggest")
+    public List<Suggestion> suggest(@RequestParam String prefix, @RequestParam(defaultValue = "8") int limit) {
+        return productService.suggest(prefix, limit);
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public Product addProduct(@RequestBody Product product) {
         return productService.addProduct(product);
     }
 
+    // Streams the request body; send text/csv with a header row or application/x-ndjson
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    @PreAuthorize("hasRole('ADMIN')")
+    public ProductImportReport importProducts(HttpServletRequest request) throws IOException {
+        if (MediaType.parseMediaType(request.getContentType()).isCompatibleWith(TEXT_CSV)) {
+            return importService.importCsv(request.getInputStream());
+        }
+        return importService.importNdjson(request.getInputStream());
+    }
+
+    @PatchMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public BulkUpdateReport bulkUpdate(@RequestBody List<ProductBulkUpdate> updates) {
+        return bulkUpdateService.update(updates);
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public Product updateProduct(@PathVariable Long id, @RequestBody Product product) {
         return productService.updateProduct(id, product);
     }
 
+    /**
+     * Applies only the fields present in the body. Send If-Match with the detail
+     * ETag (or a version in the body) to fail with 409 instead of overwriting a
+     * newer edit.
+     */
+    @PatchMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> patchProduct(@PathVariable Long id, @RequestBody ProductPatch patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ifMatch != null ? parseProductETag(id, ifMatch) : patch.getVersion();
+        Long version = productService.patchProduct(id, patch, expectedVersion);
+        if (version == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.noContent().eTag(productETag(id, version)).build();
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public void deleteProduct(@PathVariable Long id) {
         productService.deleteProduct(id);
     }
+
+    private static String productETag(Long id, long version) {
+        return "\"product-" + id + "-" + version + "\"";
+    }
+
+    // "*" matches any version of an existing product
+    private static Long parseProductETag(Long id, String etag) {
+        if ("*".equals(etag.trim())) {
+            return null;
+        }
+        String prefix = "\"product-" + id + "-";
+        if (etag.startsWith("W/")) {
+            etag = etag.substring(2);
+        }
+        if (etag.startsWith(prefix) && etag.endsWith("\"") && etag.length() > prefix.length() + 1) {
+            try {
+                return Long.parseLong(etag.substring(prefix.length(), etag.length() - 1));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                "If-Match does not name a version of this product");
+    }
 }
@@ -0,0 +1,58 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.config.CatalogETag;
+import com.example.ecommerce.dto.RatingSummary;
+import com.example.ecommerce.dto.ReviewRequest;
+import com.example.ecommerce.dto.ReviewResponse;
+import com.example.ecommerce.security.services.CurrentUser;
+import com.example.ecommerce.security.services.UserDetailsImpl;
+import com.example.ecommerce.service.ReviewService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.CompletableFuture;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api")
+public class ReviewController {
+    @Autowired
+    private ReviewService reviewService;
+
+    @CatalogETag
+    @GetMapping("/products/{productId}/reviews")
+    public Page<ReviewResponse> getReviews(@PathVariable Long productId,
+            @PageableDefault(size = 10, sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
+        return reviewService.getReviews(productId, pageable);
+    }
+
+    @CatalogETag
+    @GetMapping("/products/{productId}/rating")
+    public RatingSummary getRating(@PathVariable Long productId) {
+        return reviewService.getRating(productId);
+    }
+
+    @PostMapping("/products/{productId}/reviews")
+    @PreAuthorize("isAuthenticated()")
+    public CompletableFuture<ResponseEntity<?>> addReview(@PathVariable Long productId,
+            @Valid @RequestBody ReviewRequest request) {
+        return reviewService.addReview(CurrentUser.getId(), productId, request)
+                .thenApply(done -> ResponseEntity.status(HttpStatus.CREATED).body("Review submitted successfully!"));
+    }
+
+    @DeleteMapping("/reviews/{id}")
+    public void deleteReview(@PathVariable Long id) {
+        UserDetailsImpl user = CurrentUser.get();
+        boolean admin = user.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        reviewService.deleteReview(user.getId(), admin, id);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.dto.StatisticsView;
+import com.example.ecommerce.service.StatisticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/statistics")
+public class StatisticsController {
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public StatisticsView getStatistics() {
+        return statisticsService.getStatistics();
+    }
+}
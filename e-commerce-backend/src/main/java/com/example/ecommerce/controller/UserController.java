@@ -2,9 +2,12 @@ package com.example.ecommerce.controller;
 
 import com.example.ecommerce.entity.Address;
 import com.example.ecommerce.entity.User;
+import com.example.ecommerce.security.services.CurrentUser;
+import com.example.ecommerce.security.services.TokenVersionService;
 import com.example.ecommerce.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -16,22 +19,33 @@ public class UserController {
     @Autowired
     private UserService userService;
 
-    private String getCurrentUserEmail() {
-        return SecurityContextHolder.getContext().getAuthentication().getName();
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    private Long getCurrentUserId() {
+        return CurrentUser.getId();
     }
 
     @GetMapping("/profile")
     public User getProfile() {
-        return userService.getUserByEmail(getCurrentUserEmail());
+        return userService.getUserById(getCurrentUserId());
     }
 
     @GetMapping("/addresses")
     public List<Address> getAddresses() {
-        return userService.getUserAddresses(getCurrentUserEmail());
+        return userService.getUserAddresses(getCurrentUserId());
     }
 
     @PostMapping("/addresses")
     public Address addAddress(@RequestBody Address address) {
-        return userService.addAddress(getCurrentUserEmail(), address);
+        return userService.addAddress(getCurrentUserId(), address);
+    }
+
+    // Signs the user out everywhere, e.g. after their roles changed or their account was compromised
+    @PostMapping("/{userId}/revoke-tokens")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> revokeTokens(@PathVariable Long userId) {
+        tokenVersionService.revokeTokens(userId);
+        return ResponseEntity.noContent().build();
     }
 }
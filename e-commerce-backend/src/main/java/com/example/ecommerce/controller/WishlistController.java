@@ -1,9 +1,9 @@
 package com.example.ecommerce.controller;
 
 import com.example.ecommerce.entity.Wishlist;
+import com.example.ecommerce.security.services.CurrentUser;
 import com.example.ecommerce.service.WishlistService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -13,22 +13,22 @@ public class WishlistController {
     @Autowired
     private WishlistService wishlistService;
 
-    private String getCurrentUserEmail() {
-        return SecurityContextHolder.getContext().getAuthentication().getName();
+    private Long getCurrentUserId() {
+        return CurrentUser.getId();
     }
 
     @GetMapping
     public Wishlist getWishlist() {
-        return wishlistService.getWishlistByUserEmail(getCurrentUserEmail());
+        return wishlistService.getWishlistByUserId(getCurrentUserId());
     }
 
     @PostMapping("/add")
     public Wishlist addToWishlist(@RequestParam Long productId) {
-        return wishlistService.addToWishlist(getCurrentUserEmail(), productId);
+        return wishlistService.addToWishlist(getCurrentUserId(), productId);
     }
 
     @DeleteMapping("/item/{itemId}")
     public Wishlist removeFromWishlist(@PathVariable Long itemId) {
-        return wishlistService.removeFromWishlist(getCurrentUserEmail(), itemId);
+        return wishlistService.removeFromWishlist(getCurrentUserId(), itemId);
     }
 }
@@ -0,0 +1,60 @@
+package com.example.ecommerce.dto;
+
+public class BulkUpdateReport {
+    private int requested;
+    private long rowsAffected;
+    private int statements;
+    private long elapsedMs;
+    private long rowsPerSecond;
+
+    public BulkUpdateReport() {
+    }
+
+    public BulkUpdateReport(int requested, long rowsAffected, int statements, long elapsedMs) {
+        this.requested = requested;
+        this.rowsAffected = rowsAffected;
+        this.statements = statements;
+        this.elapsedMs = elapsedMs;
+        this.rowsPerSecond = elapsedMs > 0 ? rowsAffected * 1000 / elapsedMs : rowsAffected;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+
+    public long getRowsAffected() {
+        return rowsAffected;
+    }
+
+    public void setRowsAffected(long rowsAffected) {
+        this.rowsAffected = rowsAffected;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public void setStatements(int statements) {
+        this.statements = statements;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    public long getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(long rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.ecommerce.dto;
+
+// One step of a batched cart edit: ADD increases a line, SET replaces its quantity, REMOVE drops it
+public class CartOperation {
+    public enum Type {
+        ADD, SET, REMOVE
+    }
+
+    private Type op;
+    private Long productId;
+    private int quantity;
+
+    public Type getOp() {
+        return op;
+    }
+
+    public void setOp(Type op) {
+        this.op = op;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.ecommerce.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Cart as returned by the cart endpoints. Lines are identified by product id
+ * and priced at the product's current price; lines whose product was deleted
+ * are left out.
+ */
+public record CartView(List<Item> items, int totalItems, BigDecimal subtotal) {
+    public record Item(Long productId, String name, String imageUrl, BigDecimal price, int stock, int quantity,
+            BigDecimal lineTotal) {
+    }
+}
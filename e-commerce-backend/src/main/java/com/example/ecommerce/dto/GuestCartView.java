@@ -0,0 +1,8 @@
+package com.example.ecommerce.dto;
+
+/**
+ * Cart of an anonymous shopper together with the token that addresses it.
+ * The token is null once the cart is empty or has expired.
+ */
+public record GuestCartView(String cartToken, CartView cart) {
+}
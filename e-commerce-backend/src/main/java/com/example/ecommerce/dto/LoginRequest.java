@@ -9,6 +9,9 @@ public class LoginRequest {
     @NotBlank
     private String password;
 
+    // Token of the guest cart to merge into the user's cart, if any
+    private String cartToken;
+
     public String getEmail() {
         return email;
     }
@@ -24,4 +27,12 @@ public class LoginRequest {
     public void setPassword(String password) {
         this.password = password;
     }
+
+    public String getCartToken() {
+        return cartToken;
+    }
+
+    public void setCartToken(String cartToken) {
+        this.cartToken = cartToken;
+    }
 }
@@ -0,0 +1,10 @@
+package com.example.ecommerce.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One order line; orders without items yield a single row with null item fields
+public record OrderExportRow(Long orderId, LocalDateTime createdAt, String status, BigDecimal totalAmount,
+        String paymentMethod, String shippingFullName, String shippingCity, String shippingCountry, Long userId,
+        String userEmail, Long productId, Integer quantity, BigDecimal itemPrice) {
+}
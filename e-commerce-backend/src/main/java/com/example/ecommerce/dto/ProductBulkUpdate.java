@@ -0,0 +1,34 @@
+package com.example.ecommerce.dto;
+
+import java.math.BigDecimal;
+
+// One row of a bulk patch; a null price or stock leaves that column unchanged
+public class ProductBulkUpdate {
+    private Long id;
+    private BigDecimal price;
+    private Integer stock;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.ecommerce.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record ProductExportRow(Long id, String name, String description, BigDecimal price, Integer stock,
+        String imageUrl, Long categoryId, String categoryName, LocalDateTime createdAt) {
+}
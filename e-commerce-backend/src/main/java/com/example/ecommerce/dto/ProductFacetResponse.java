@@ -0,0 +1,84 @@
+package com.example.ecommerce.dto;
+
+import com.example.ecommerce.search.FacetResult;
+
+import java.util.List;
+
+public class ProductFacetResponse {
+    private List<ProductSummary> content;
+    private long totalElements;
+    private int page;
+    private int size;
+    private List<FacetResult.CategoryCount> categories;
+    private List<FacetResult.PriceBucketCount> priceBuckets;
+    private long inStock;
+
+    public ProductFacetResponse() {
+    }
+
+    public ProductFacetResponse(List<ProductSummary> content, int page, int size, FacetResult facets) {
+        this.content = content;
+        this.totalElements = facets.total();
+        this.page = page;
+        this.size = size;
+        this.categories = facets.categories();
+        this.priceBuckets = facets.priceBuckets();
+        this.inStock = facets.inStock();
+    }
+
+    public List<ProductSummary> getContent() {
+        return content;
+    }
+
+    public void setContent(List<ProductSummary> content) {
+        this.content = content;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(long totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public List<FacetResult.CategoryCount> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<FacetResult.CategoryCount> categories) {
+        this.categories = categories;
+    }
+
+    public List<FacetResult.PriceBucketCount> getPriceBuckets() {
+        return priceBuckets;
+    }
+
+    public void setPriceBuckets(List<FacetResult.PriceBucketCount> priceBuckets) {
+        this.priceBuckets = priceBuckets;
+    }
+
+    public long getInStock() {
+        return inStock;
+    }
+
+    public void setInStock(long inStock) {
+        this.inStock = inStock;
+    }
+}
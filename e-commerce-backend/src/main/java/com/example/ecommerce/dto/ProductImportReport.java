@@ -0,0 +1,99 @@
+package com.example.ecommerce.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductImportReport {
+    // Only the first errors are kept so a bad feed cannot grow the report without bound
+    private static final int MAX_ERRORS = 1000;
+
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    private long batchesWritten;
+    private long batchesFailed;
+    private long elapsedMs;
+    private List<String> errors = new ArrayList<>();
+
+    public void rowRead() {
+        rowsRead++;
+    }
+
+    public void rowRejected(long line, String reason) {
+        rowsRejected++;
+        addError("line " + line + ": " + reason);
+    }
+
+    public void batchWritten(int rows) {
+        batchesWritten++;
+        rowsImported += rows;
+    }
+
+    public void batchFailed(long firstLine, long lastLine, int rows, String reason) {
+        batchesFailed++;
+        rowsRejected += rows;
+        addError("batch lines " + firstLine + "-" + lastLine + ": " + reason);
+    }
+
+    private void addError(String error) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    public void setRowsImported(long rowsImported) {
+        this.rowsImported = rowsImported;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public void setRowsRejected(long rowsRejected) {
+        this.rowsRejected = rowsRejected;
+    }
+
+    public long getBatchesWritten() {
+        return batchesWritten;
+    }
+
+    public void setBatchesWritten(long batchesWritten) {
+        this.batchesWritten = batchesWritten;
+    }
+
+    public long getBatchesFailed() {
+        return batchesFailed;
+    }
+
+    public void setBatchesFailed(long batchesFailed) {
+        this.batchesFailed = batchesFailed;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.ecommerce.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Listing view of a product, read with a single constructor-expression query.
+ * Full entities are only returned from the detail endpoint.
+ */
+public record ProductSummary(Long id, String name, BigDecimal price, int stock, String imageUrl,
+        CategoryRef category, Double averageRating, long reviewCount) {
+
+    public ProductSummary(Long id, String name, BigDecimal price, Integer stock, String imageUrl,
+            Long categoryId, String categoryName, Double averageRating, Long reviewCount) {
+        this(id, name, price, stock, imageUrl, categoryId == null ? null : new CategoryRef(categoryId, categoryName),
+                averageRating, reviewCount == null ? 0 : reviewCount);
+    }
+
+    public record CategoryRef(Long id, String name) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.ecommerce.dto;
+
+/**
+ * Aggregate rating of a product. {@code histogram[i]} counts reviews with
+ * {@code i + 1} stars; {@code average} is null when there are no reviews.
+ */
+public record RatingSummary(Long productId, long count, Double average, long[] histogram) {
+}
@@ -0,0 +1,30 @@
+package com.example.ecommerce.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+
+public class ReviewRequest {
+    @Min(1)
+    @Max(5)
+    private int rating;
+
+    @Size(max = 2000)
+    private String comment;
+
+    public int getRating() {
+        return rating;
+    }
+
+    public void setRating(int rating) {
+        this.rating = rating;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.ecommerce.dto;
+
+import java.time.LocalDateTime;
+
+public record ReviewResponse(Long id, int rating, String comment, LocalDateTime createdAt, Long userId,
+        String userName) {
+}
@@ -0,0 +1,16 @@
+package com.example.ecommerce.dto;
+
+import com.example.ecommerce.entity.Order;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin dashboard figures, aggregated in the database. Only the lowest-stock
+ * products and the latest orders are listed; everything else is a count.
+ */
+public record StatisticsView(long totalProducts, long lowStockCount, long outOfStockCount,
+        List<ProductSummary> lowStockProducts, long totalOrders, Map<String, Long> ordersByStatus,
+        BigDecimal totalRevenue, List<Order> recentOrders) {
+}
@@ -22,6 +22,11 @@ public class Cart {
     @JsonIgnoreProperties({ "cart" })
     private List<CartItem> items = new ArrayList<>();
 
+    // Bumped by every cart write; the cart store checks it before overwriting lines
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     public Cart() {
     }
 
@@ -54,4 +59,12 @@ public class Cart {
     public void setItems(List<CartItem> items) {
         this.items = items;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -6,7 +6,10 @@ import jakarta.persistence.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "cart_items")
+@Table(name = "cart_items", uniqueConstraints = {
+        // One line per product: the cart writer upserts lines by (cart, product)
+        @UniqueConstraint(name = "uk_cart_items_cart_product", columnNames = { "cart_id", "product_id" })
+})
 public class CartItem {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -1,5 +1,6 @@
 package com.example.ecommerce.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 
@@ -22,14 +23,19 @@ public class Category {
     @JsonIgnoreProperties({ "parent", "children", "products" })
     private Category parent;
 
+    // The hierarchy is served from /api/categories/tree; products are listed per category
     @OneToMany(mappedBy = "parent", cascade = CascadeType.ALL)
-    @JsonIgnoreProperties({ "category", "parent", "children" })
+    @JsonIgnore
     private List<Category> children;
 
     @OneToMany(mappedBy = "category", cascade = CascadeType.ALL)
-    @JsonIgnoreProperties({ "category", "reviews" })
+    @JsonIgnore
     private List<Product> products;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     public Category() {
     }
 
@@ -90,4 +96,12 @@ public class Category {
     public void setProducts(List<Product> products) {
         this.products = products;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,95 @@
+package com.example.ecommerce.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Running review aggregate for one product, updated in the same transaction as
+ * every review insert or delete so readers never have to scan reviews.
+ */
+@Entity
+@Table(name = "product_ratings")
+public class ProductRating {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "review_count", nullable = false)
+    private long reviewCount;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    // Histogram by star
+    private long star1;
+    private long star2;
+    private long star3;
+    private long star4;
+    private long star5;
+
+    public ProductRating() {
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public long getReviewCount() {
+        return reviewCount;
+    }
+
+    public void setReviewCount(long reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+
+    public long getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(long ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    public long getStar1() {
+        return star1;
+    }
+
+    public void setStar1(long star1) {
+        this.star1 = star1;
+    }
+
+    public long getStar2() {
+        return star2;
+    }
+
+    public void setStar2(long star2) {
+        this.star2 = star2;
+    }
+
+    public long getStar3() {
+        return star3;
+    }
+
+    public void setStar3(long star3) {
+        this.star3 = star3;
+    }
+
+    public long getStar4() {
+        return star4;
+    }
+
+    public void setStar4(long star4) {
+        this.star4 = star4;
+    }
+
+    public long getStar5() {
+        return star5;
+    }
+
+    public void setStar5(long star5) {
+        this.star5 = star5;
+    }
+}
@@ -6,7 +6,7 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = @Index(name = "idx_reviews_product_id", columnList = "product_id, id"))
 public class Review {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
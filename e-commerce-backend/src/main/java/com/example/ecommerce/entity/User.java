@@ -30,6 +30,11 @@ public class User {
 
     private boolean enabled = true;
 
+    // Bumped to invalidate tokens issued with an older role set
+    @Column(name = "token_version")
+    @JsonIgnore
+    private int tokenVersion;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -117,6 +122,14 @@ public class User {
         this.enabled = enabled;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
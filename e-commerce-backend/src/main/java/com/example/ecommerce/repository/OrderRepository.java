@@ -1,12 +1,45 @@
 package com.example.ecommerce.repository;
 
+import com.example.ecommerce.dto.OrderExportRow;
 import com.example.ecommerce.entity.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserId(Long userId);
+
+    // Keyset pagination, newest first
+    Slice<Order> findByIdLessThanOrderByIdDesc(Long id, Pageable pageable);
+
+    Slice<Order> findByUserIdAndIdLessThanOrderByIdDesc(Long userId, Long id, Pageable pageable);
+
+    // Units sold per product id, as [productId, quantity] rows
+    @Query("select oi.product.id, sum(oi.quantity) from OrderItem oi group by oi.product.id")
+    List<Object[]> sumQuantityByProduct();
+
+    // Dashboard totals, as [status, order count, summed total amount] rows
+    @Query("select o.status, count(o), sum(o.totalAmount) from Order o group by o.status")
+    List<Object[]> summarizeByStatus();
+
+    // Export: one row per order line, ordered by order id so lines of an order are adjacent.
+    // MySQL streams rows one at a time with a fetch size of Integer.MIN_VALUE; call inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.example.ecommerce.dto.OrderExportRow(o.id, o.createdAt, o.status, o.totalAmount, "
+            + "o.paymentMethod, o.shippingFullName, o.shippingCity, o.shippingCountry, u.id, u.email, "
+            + "p.id, oi.quantity, oi.price) "
+            + "from Order o join o.user u left join o.items oi left join oi.product p order by o.id, oi.id")
+    Stream<OrderExportRow> streamExportRows();
 }
@@ -0,0 +1,23 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.entity.ProductRating;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProductRatingRepository extends JpaRepository<ProductRating, Long> {
+    // Atomic upsert so concurrent writers never lose an increment
+    @Modifying
+    @Query(value = "insert into product_ratings "
+            + "(product_id, review_count, rating_sum, star1, star2, star3, star4, star5) "
+            + "values (:productId, :count, :sum, :s1, :s2, :s3, :s4, :s5) "
+            + "on duplicate key update review_count = review_count + :count, rating_sum = rating_sum + :sum, "
+            + "star1 = star1 + :s1, star2 = star2 + :s2, star3 = star3 + :s3, "
+            + "star4 = star4 + :s4, star5 = star5 + :s5", nativeQuery = true)
+    void applyDelta(@Param("productId") Long productId, @Param("count") long count, @Param("sum") long sum,
+            @Param("s1") long s1, @Param("s2") long s2, @Param("s3") long s3,
+            @Param("s4") long s4, @Param("s5") long s5);
+}
@@ -1,14 +1,120 @@
 package com.example.ecommerce.repository;
 
+import com.example.ecommerce.dto.ProductExportRow;
+import com.example.ecommerce.dto.ProductSummary;
 import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.search.FacetSource;
+import com.example.ecommerce.search.ProductDocument;
+import com.example.ecommerce.search.ProductName;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
-    Page<Product> findByNameContaining(String name, Pageable pageable);
+    // Detail view: fetch everything the response serializes so the entity can be cached detached
+    @EntityGraph(attributePaths = { "category" })
+    Optional<Product> findDetailById(Long id);
+
+    @EntityGraph(attributePaths = { "category" })
+    List<Product> findDetailsByIdIn(Collection<Long> ids);
+
+    // Listing projection: one statement per page, rating read from the maintained aggregate
+    String SUMMARY_SELECT = "select new com.example.ecommerce.dto.ProductSummary(p.id, p.name, p.price, p.stock, "
+            + "p.imageUrl, c.id, c.name, cast(pr.ratingSum as double) / nullif(pr.reviewCount, 0), "
+            + "coalesce(pr.reviewCount, 0L)) "
+            + "from Product p left join p.category c left join ProductRating pr on pr.productId = p.id ";
+
+    @Query(value = SUMMARY_SELECT, countQuery = "select count(p) from Product p")
+    Page<ProductSummary> findSummaries(Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "where p.name like concat('%', :name, '%')",
+            countQuery = "select count(p) from Product p where p.name like concat('%', :name, '%')")
+    Page<ProductSummary> findSummariesByNameContaining(@Param("name") String name, Pageable pageable);
+
+    // Category subtree as its list of category ids, matched on products.category_id so the
+    // (category_id, ...) indexes apply; a single category is an ordered seek, several are one range each
+    @Query(value = SUMMARY_SELECT + "where p.category.id in :categoryIds",
+            countQuery = "select count(p) from Product p where p.category.id in :categoryIds")
+    Page<ProductSummary> findSummariesInCategories(@Param("categoryIds") List<Long> categoryIds, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "where p.id in :ids")
+    List<ProductSummary> findSummariesByIdIn(@Param("ids") List<Long> ids);
+
+    // Keyset pagination: each query seeks past the last (sort key, id) seen, with no count query
+    @Query(SUMMARY_SELECT + "where p.id > :id order by p.id asc")
+    Slice<ProductSummary> findSummariesAfterId(@Param("id") Long id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "where p.category.id in :categoryIds and p.id > :id order by p.id asc")
+    Slice<ProductSummary> findSummariesInCategoriesAfterId(@Param("categoryIds") List<Long> categoryIds,
+            @Param("id") Long id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "order by p.price asc, p.id asc")
+    Slice<ProductSummary> findSummariesOrderByPrice(Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "where p.category.id in :categoryIds order by p.price asc, p.id asc")
+    Slice<ProductSummary> findSummariesInCategoriesOrderByPrice(@Param("categoryIds") List<Long> categoryIds,
+            Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "where p.price > :price or (p.price = :price and p.id > :id) "
+            + "order by p.price asc, p.id asc")
+    Slice<ProductSummary> findSummariesAfterPrice(@Param("price") BigDecimal price, @Param("id") Long id,
+            Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "where p.category.id in :categoryIds "
+            + "and (p.price > :price or (p.price = :price and p.id > :id)) "
+            + "order by p.price asc, p.id asc")
+    Slice<ProductSummary> findSummariesInCategoriesAfterPrice(@Param("categoryIds") List<Long> categoryIds,
+            @Param("price") BigDecimal price, @Param("id") Long id, Pageable pageable);
+
+    @Query("select new com.example.ecommerce.search.ProductDocument(p.id, p.name, p.description, c.name) "
+            + "from Product p left join p.category c where p.id > :afterId order by p.id")
+    List<ProductDocument> findSearchDocuments(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select new com.example.ecommerce.search.ProductName(p.id, p.name) "
+            + "from Product p where p.id > :afterId order by p.id")
+    List<ProductName> findNamesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select new com.example.ecommerce.search.ProductDocument(p.id, p.name, p.description, c.name) "
+            + "from Product p left join p.category c where p.id in :ids")
+    List<ProductDocument> findSearchDocumentsByIdIn(@Param("ids") List<Long> ids);
+
+    @Query("select new com.example.ecommerce.search.FacetSource(p.id, c.id, p.price, p.stock) "
+            + "from Product p left join p.category c where p.id > :afterId order by p.id")
+    List<FacetSource> findFacetSources(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Export: MySQL streams rows one at a time with a fetch size of Integer.MIN_VALUE; call inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.example.ecommerce.dto.ProductExportRow(p.id, p.name, p.description, p.price, p.stock, "
+            + "p.imageUrl, c.id, c.name, p.createdAt) from Product p left join p.category c order by p.id")
+    Stream<ProductExportRow> streamExportRows();
+
+    long countByStockLessThan(int stock);
+
+    long countByStock(int stock);
+
+    // Lowest stock first, for the admin dashboard's inventory alerts
+    @Query(SUMMARY_SELECT + "where p.stock < :stock order by p.stock asc, p.id asc")
+    List<ProductSummary> findSummariesWithStockBelow(@Param("stock") int stock, Pageable pageable);
 
-    Page<Product> findByCategoryId(Long categoryId, Pageable pageable);
+    @Query("select new com.example.ecommerce.search.FacetSource(p.id, c.id, p.price, p.stock) "
+            + "from Product p left join p.category c where p.id in :ids")
+    List<FacetSource> findFacetSourcesByIdIn(@Param("ids") List<Long> ids);
 }
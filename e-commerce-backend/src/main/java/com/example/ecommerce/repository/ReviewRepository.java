@@ -1,7 +1,12 @@
 package com.example.ecommerce.repository;
 
+import com.example.ecommerce.dto.ReviewResponse;
 import com.example.ecommerce.entity.Review;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +14,9 @@ import java.util.List;
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByProductId(Long productId);
+
+    @Query(value = "select new com.example.ecommerce.dto.ReviewResponse(r.id, r.rating, r.comment, r.createdAt, "
+            + "u.id, u.name) from Review r join r.user u where r.product.id = :productId",
+            countQuery = "select count(r) from Review r where r.product.id = :productId")
+    Page<ReviewResponse> findResponsesByProductId(@Param("productId") Long productId, Pageable pageable);
 }
@@ -0,0 +1,381 @@
+package com.example.ecommerce.search;
+
+import com.example.ecommerce.entity.Category;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.CategoryRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Compressed bitmaps of product ids per category (including every descendant),
+ * per price bucket and for in-stock products. Combined filters and facet counts
+ * are bitmap ANDs/ORs, so their cost tracks the number of facet values rather
+ * than the number of products. A rebuild loads into fresh bitmaps without the
+ * lock and swaps them in; writes that arrive meanwhile are replayed onto them
+ * before the swap.
+ */
+@Component
+public class FacetIndex {
+    private static final Logger logger = LoggerFactory.getLogger(FacetIndex.class);
+
+    private static final int BATCH_SIZE = 10_000;
+
+    // Lower edges of the price buckets; the last bucket is open-ended
+    static final BigDecimal[] PRICE_EDGES = {
+            new BigDecimal("0"), new BigDecimal("25"), new BigDecimal("50"), new BigDecimal("100"),
+            new BigDecimal("250"), new BigDecimal("500"), new BigDecimal("1000")
+    };
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    // Guarded by lock
+    private Bitmaps bitmaps = new Bitmaps();
+    private List<Consumer<Bitmaps>> pendingUpdates;
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            withWriteLock(() -> pendingUpdates = new ArrayList<>());
+
+            Bitmaps fresh = new Bitmaps();
+            for (Object[] row : categoryRepository.findCategoryLinks()) {
+                fresh.putCategoryLink((Long) row[0], (Long) row[1], (String) row[2]);
+            }
+
+            Long afterId = 0L;
+            List<FacetSource> batch;
+            do {
+                batch = productRepository.findFacetSources(afterId, PageRequest.of(0, BATCH_SIZE));
+                for (FacetSource source : batch) {
+                    fresh.add(source);
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).id();
+                }
+            } while (batch.size() == BATCH_SIZE);
+            fresh.runOptimize();
+
+            withWriteLock(() -> {
+                pendingUpdates.forEach(update -> update.accept(fresh));
+                bitmaps = fresh;
+                ready = true;
+            });
+            logger.info("Facet index built with {} products in {} ms", fresh.all.getCardinality(),
+                    System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("Failed to build facet index", e);
+        } finally {
+            withWriteLock(() -> pendingUpdates = null);
+            rebuilding.set(false);
+        }
+    }
+
+    public void putProduct(Product product) {
+        Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+        FacetSource source = new FacetSource(product.getId(), categoryId, product.getPrice(), product.getStock());
+        apply(index -> index.put(source));
+    }
+
+    // Refreshes many products under a single lock acquisition
+    public void putSources(List<FacetSource> sources) {
+        apply(index -> sources.forEach(index::put));
+    }
+
+    /**
+     * Moves an indexed product between facet values for the fields that changed
+     * (null means unchanged), so a partial update needs no reload of the row.
+     */
+    public void patchProduct(Long productId, BigDecimal price, Integer stock, Long categoryId) {
+        int bit = toBit(productId);
+        apply(index -> index.patch(bit, price, stock, categoryId));
+    }
+
+    public void removeProduct(Long productId) {
+        int bit = toBit(productId);
+        apply(index -> index.removeFromAll(bit));
+    }
+
+    public void putCategory(Category category) {
+        Long parentId = category.getParent() != null ? category.getParent().getId() : null;
+        apply(index -> index.putCategoryLink(category.getId(), parentId, category.getName()));
+    }
+
+    /**
+     * Deleting a category cascades to its subcategories and their products, so
+     * all of them leave the index.
+     */
+    public void removeCategory(Long categoryId) {
+        apply(index -> index.removeCategory(categoryId));
+    }
+
+    public FacetResult query(FacetQuery query) {
+        lock.readLock().lock();
+        try {
+            return bitmaps.query(query);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<Bitmaps> update) {
+        lock.writeLock().lock();
+        try {
+            update.accept(bitmaps);
+            if (pendingUpdates != null) {
+                pendingUpdates.add(update);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static int priceBucket(BigDecimal price) {
+        for (int i = PRICE_EDGES.length - 1; i > 0; i--) {
+            if (price.compareTo(PRICE_EDGES[i]) >= 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static int toBit(Long productId) {
+        return Math.toIntExact(productId);
+    }
+
+    // One generation of the index; only touched under the lock once published
+    private static final class Bitmaps {
+        private final Map<Long, Long> parents = new HashMap<>();
+        private final Map<Long, String> categoryNames = new HashMap<>();
+        private final Map<Long, RoaringBitmap> byCategory = new HashMap<>();
+        private final RoaringBitmap[] byPriceBucket = new RoaringBitmap[PRICE_EDGES.length];
+        private final RoaringBitmap inStock = new RoaringBitmap();
+        private final RoaringBitmap all = new RoaringBitmap();
+
+        Bitmaps() {
+            for (int i = 0; i < byPriceBucket.length; i++) {
+                byPriceBucket[i] = new RoaringBitmap();
+            }
+        }
+
+        void put(FacetSource source) {
+            removeFromAll(toBit(source.id()));
+            add(source);
+        }
+
+        void add(FacetSource source) {
+            int bit = toBit(source.id());
+            all.add(bit);
+            if (source.stock() > 0) {
+                inStock.add(bit);
+            }
+            if (source.price() != null) {
+                byPriceBucket[priceBucket(source.price())].add(bit);
+            }
+            // A product counts towards its category and every ancestor
+            for (Long id = source.categoryId(); id != null; id = parents.get(id)) {
+                byCategory.computeIfAbsent(id, key -> new RoaringBitmap()).add(bit);
+            }
+        }
+
+        void patch(int bit, BigDecimal price, Integer stock, Long categoryId) {
+            if (!all.contains(bit)) {
+                return;
+            }
+            if (price != null) {
+                for (RoaringBitmap bucket : byPriceBucket) {
+                    bucket.remove(bit);
+                }
+                byPriceBucket[priceBucket(price)].add(bit);
+            }
+            if (stock != null) {
+                if (stock > 0) {
+                    inStock.add(bit);
+                } else {
+                    inStock.remove(bit);
+                }
+            }
+            if (categoryId != null) {
+                for (RoaringBitmap bitmap : byCategory.values()) {
+                    bitmap.remove(bit);
+                }
+                for (Long id = categoryId; id != null; id = parents.get(id)) {
+                    byCategory.computeIfAbsent(id, key -> new RoaringBitmap()).add(bit);
+                }
+            }
+        }
+
+        void removeFromAll(int bit) {
+            all.remove(bit);
+            inStock.remove(bit);
+            for (RoaringBitmap bucket : byPriceBucket) {
+                bucket.remove(bit);
+            }
+            for (RoaringBitmap bitmap : byCategory.values()) {
+                bitmap.remove(bit);
+            }
+        }
+
+        void putCategoryLink(Long id, Long parentId, String name) {
+            if (parentId != null) {
+                parents.put(id, parentId);
+            }
+            categoryNames.put(id, name);
+        }
+
+        void removeCategory(Long categoryId) {
+            RoaringBitmap members = byCategory.get(categoryId);
+            if (members != null) {
+                RoaringBitmap removed = members.clone();
+                byCategory.values().forEach(bitmap -> bitmap.andNot(removed));
+                for (RoaringBitmap bucket : byPriceBucket) {
+                    bucket.andNot(removed);
+                }
+                inStock.andNot(removed);
+                all.andNot(removed);
+            }
+            List<Long> subtree = new ArrayList<>();
+            subtree.add(categoryId);
+            for (int i = 0; i < subtree.size(); i++) {
+                Long parent = subtree.get(i);
+                parents.forEach((child, childParent) -> {
+                    if (parent.equals(childParent)) {
+                        subtree.add(child);
+                    }
+                });
+            }
+            for (Long id : subtree) {
+                parents.remove(id);
+                categoryNames.remove(id);
+                byCategory.remove(id);
+            }
+        }
+
+        void runOptimize() {
+            byCategory.values().forEach(RoaringBitmap::runOptimize);
+            for (RoaringBitmap bucket : byPriceBucket) {
+                bucket.runOptimize();
+            }
+            inStock.runOptimize();
+            all.runOptimize();
+        }
+
+        FacetResult query(FacetQuery query) {
+            RoaringBitmap categoryFilter = null;
+            if (query.categoryIds() != null && !query.categoryIds().isEmpty()) {
+                categoryFilter = new RoaringBitmap();
+                for (Long id : query.categoryIds()) {
+                    RoaringBitmap members = byCategory.get(id);
+                    if (members != null) {
+                        categoryFilter.or(members);
+                    }
+                }
+            }
+            RoaringBitmap priceFilter = null;
+            if (query.priceBuckets() != null && !query.priceBuckets().isEmpty()) {
+                priceFilter = new RoaringBitmap();
+                for (Integer bucket : query.priceBuckets()) {
+                    if (bucket != null && bucket >= 0 && bucket < byPriceBucket.length) {
+                        priceFilter.or(byPriceBucket[bucket]);
+                    }
+                }
+            }
+            RoaringBitmap stockFilter = query.inStockOnly() ? inStock : null;
+
+            RoaringBitmap matches = intersect(categoryFilter, priceFilter, stockFilter);
+
+            RoaringBitmap withoutCategory = intersect(null, priceFilter, stockFilter);
+            List<FacetResult.CategoryCount> categories = new ArrayList<>();
+            for (Map.Entry<Long, RoaringBitmap> entry : byCategory.entrySet()) {
+                long count = RoaringBitmap.andCardinality(entry.getValue(), withoutCategory);
+                if (count > 0) {
+                    categories.add(new FacetResult.CategoryCount(entry.getKey(),
+                            categoryNames.get(entry.getKey()), count));
+                }
+            }
+
+            RoaringBitmap withoutPrice = intersect(categoryFilter, null, stockFilter);
+            List<FacetResult.PriceBucketCount> priceBuckets = new ArrayList<>(byPriceBucket.length);
+            for (int i = 0; i < byPriceBucket.length; i++) {
+                priceBuckets.add(new FacetResult.PriceBucketCount(i, PRICE_EDGES[i],
+                        i + 1 < PRICE_EDGES.length ? PRICE_EDGES[i + 1] : null,
+                        RoaringBitmap.andCardinality(byPriceBucket[i], withoutPrice)));
+            }
+
+            long inStockCount = RoaringBitmap.andCardinality(inStock, intersect(categoryFilter, priceFilter, null));
+
+            return new FacetResult(page(matches, query.offset(), query.limit()), matches.getLongCardinality(),
+                    categories, priceBuckets, inStockCount);
+        }
+
+        private RoaringBitmap intersect(RoaringBitmap... filters) {
+            RoaringBitmap result = all;
+            for (RoaringBitmap filter : filters) {
+                if (filter != null) {
+                    result = RoaringBitmap.and(result, filter);
+                }
+            }
+            return result;
+        }
+
+        private static List<Long> page(RoaringBitmap matches, int offset, int limit) {
+            int cardinality = matches.getCardinality();
+            if (offset < 0 || offset >= cardinality || limit <= 0) {
+                return new ArrayList<>();
+            }
+            List<Long> ids = new ArrayList<>(Math.min(limit, cardinality - offset));
+            PeekableIntIterator it = matches.getIntIterator();
+            it.advanceIfNeeded(matches.select(offset));
+            while (it.hasNext() && ids.size() < limit) {
+                ids.add((long) it.next());
+            }
+            return ids;
+        }
+    }
+}
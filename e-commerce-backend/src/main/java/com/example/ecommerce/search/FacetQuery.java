@@ -0,0 +1,10 @@
+package com.example.ecommerce.search;
+
+import java.util.List;
+
+/**
+ * Selected values are OR-ed within a facet and AND-ed across facets.
+ */
+public record FacetQuery(List<Long> categoryIds, List<Integer> priceBuckets, boolean inStockOnly, int offset,
+        int limit) {
+}
@@ -0,0 +1,19 @@
+package com.example.ecommerce.search;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Matching product ids for one page, plus live counts for every facet value.
+ * Each facet is counted with the other facets' filters applied but not its own,
+ * so the counts show what selecting another value would yield.
+ */
+public record FacetResult(List<Long> productIds, long total, List<CategoryCount> categories,
+        List<PriceBucketCount> priceBuckets, long inStock) {
+
+    public record CategoryCount(Long id, String name, long count) {
+    }
+
+    public record PriceBucketCount(int bucket, BigDecimal min, BigDecimal max, long count) {
+    }
+}
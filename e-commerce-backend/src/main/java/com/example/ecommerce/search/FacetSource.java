@@ -0,0 +1,9 @@
+package com.example.ecommerce.search;
+
+import java.math.BigDecimal;
+
+/**
+ * The facet-relevant columns of a product, loaded without hydrating the entity.
+ */
+public record FacetSource(Long id, Long categoryId, BigDecimal price, int stock) {
+}
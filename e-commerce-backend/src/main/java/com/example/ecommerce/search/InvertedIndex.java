@@ -0,0 +1,349 @@
+package com.example.ecommerce.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Term-to-postings index over product text, ranked with BM25. Not thread-safe;
+ * {@link ProductSearchIndex} guards access.
+ *
+ * Documents get increasing internal ids so postings stay sorted on append.
+ * Updates and deletes leave a tombstone behind, which is cleaned up by a full
+ * rebuild once {@link #needsCompaction()} says so.
+ */
+class InvertedIndex {
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    record TokenizedDocument(long productId, Map<String, Integer> termFrequencies, int length) {
+    }
+
+    private final NavigableMap<String, PostingList> terms = new TreeMap<>();
+    private final Map<Long, Integer> docsByProduct = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private final Queue<Scratch> scratchPool = new ConcurrentLinkedQueue<>();
+    private long[] productIds = new long[1024];
+    private int[] lengths = new int[1024];
+    private int docCount;
+    private int liveDocs;
+    private long totalLength;
+
+    static TokenizedDocument tokenize(ProductDocument document) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = addTokens(frequencies, document.name(), NAME_WEIGHT)
+                + addTokens(frequencies, document.categoryName(), CATEGORY_WEIGHT)
+                + addTokens(frequencies, document.description(), DESCRIPTION_WEIGHT);
+        return new TokenizedDocument(document.id(), frequencies, length);
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static int addTokens(Map<String, Integer> frequencies, String text, int weight) {
+        List<String> tokens = tokenize(text);
+        for (String token : tokens) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    void add(TokenizedDocument document) {
+        remove(document.productId());
+
+        int doc = docCount++;
+        if (doc == productIds.length) {
+            productIds = Arrays.copyOf(productIds, doc * 2);
+            lengths = Arrays.copyOf(lengths, doc * 2);
+        }
+        productIds[doc] = document.productId();
+        lengths[doc] = document.length();
+        docsByProduct.put(document.productId(), doc);
+        for (Map.Entry<String, Integer> entry : document.termFrequencies().entrySet()) {
+            terms.computeIfAbsent(entry.getKey(), term -> new PostingList()).add(doc, entry.getValue());
+        }
+        totalLength += document.length();
+        liveDocs++;
+    }
+
+    void remove(long productId) {
+        Integer doc = docsByProduct.remove(productId);
+        if (doc == null) {
+            return;
+        }
+        deleted.set(doc);
+        totalLength -= lengths[doc];
+        liveDocs--;
+    }
+
+    int size() {
+        return liveDocs;
+    }
+
+    boolean needsCompaction() {
+        int dead = docCount - liveDocs;
+        return dead > 1000 && dead > liveDocs;
+    }
+
+    /**
+     * Every query token must match. The last token also matches as a prefix so
+     * partially typed words find results.
+     */
+    SearchResult search(List<String> queryTokens, int offset, int limit) {
+        if (queryTokens.isEmpty() || liveDocs == 0) {
+            return new SearchResult(List.of(), 0);
+        }
+
+        List<List<PostingList>> matches = new ArrayList<>(queryTokens.size());
+        for (int i = 0; i < queryTokens.size(); i++) {
+            String token = queryTokens.get(i);
+            List<PostingList> lists = i == queryTokens.size() - 1 ? prefixMatches(token) : exactMatches(token);
+            if (lists.isEmpty()) {
+                return new SearchResult(List.of(), 0);
+            }
+            matches.add(lists);
+        }
+        // Rarest token first keeps the candidate set small
+        matches.sort(Comparator.comparingInt(InvertedIndex::postingCount));
+
+        float avgLength = (float) totalLength / liveDocs;
+        Scratch scratch = acquireScratch();
+        try {
+            // A candidate survives round r only if every token up to r matched it; stamps avoid clearing arrays
+            int base = scratch.stamps(matches.size(), docCount);
+            int candidates = 0;
+            for (int round = 0; round < matches.size(); round++) {
+                int previous = base + round - 1;
+                int current = base + round;
+                for (PostingList list : matches.get(round)) {
+                    float idf = idf(list.size);
+                    for (int j = 0; j < list.size; j++) {
+                        int doc = list.docs[j];
+                        int stamp = scratch.stamp[doc];
+                        if (round == 0) {
+                            if (deleted.get(doc)) {
+                                continue;
+                            }
+                            if (stamp != current) {
+                                scratch.stamp[doc] = current;
+                                scratch.score[doc] = 0;
+                                scratch.candidates[candidates++] = doc;
+                            }
+                        } else if (stamp == previous) {
+                            scratch.stamp[doc] = current;
+                        } else if (stamp != current) {
+                            continue;
+                        }
+                        int tf = list.freqs[j];
+                        float norm = K1 * (1 - B + B * lengths[doc] / avgLength);
+                        scratch.score[doc] += idf * tf * (K1 + 1) / (tf + norm);
+                    }
+                }
+                if (round > 0) {
+                    int kept = 0;
+                    for (int i = 0; i < candidates; i++) {
+                        int doc = scratch.candidates[i];
+                        if (scratch.stamp[doc] == current) {
+                            scratch.candidates[kept++] = doc;
+                        }
+                    }
+                    candidates = kept;
+                }
+                if (candidates == 0) {
+                    break;
+                }
+            }
+            return topResults(scratch, candidates, offset, limit);
+        } finally {
+            releaseScratch(scratch);
+        }
+    }
+
+    private SearchResult topResults(Scratch scratch, int candidates, int offset, int limit) {
+        if (offset < 0 || offset >= candidates || limit <= 0) {
+            return new SearchResult(List.of(), candidates);
+        }
+        int wanted = (int) Math.min((long) offset + limit, candidates);
+
+        // Min-heap of the best 'wanted' docs, weakest at the root
+        int[] heap = new int[wanted];
+        int size = 0;
+        float[] score = scratch.score;
+        for (int i = 0; i < candidates; i++) {
+            int doc = scratch.candidates[i];
+            if (size < wanted) {
+                heap[size] = doc;
+                siftUp(heap, size++, score);
+            } else if (ranksAbove(doc, heap[0], score)) {
+                heap[0] = doc;
+                siftDown(heap, size, score);
+            }
+        }
+
+        // Popping the root yields the weakest first, so fill the page from the back
+        int[] ranked = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            ranked[i] = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size, score);
+        }
+        List<Long> ids = new ArrayList<>(ranked.length - offset);
+        for (int i = offset; i < ranked.length; i++) {
+            ids.add(productIds[ranked[i]]);
+        }
+        return new SearchResult(ids, candidates);
+    }
+
+    // Higher score first; on a tie the older document wins
+    private static boolean ranksAbove(int a, int b, float[] score) {
+        return score[a] > score[b] || (score[a] == score[b] && a < b);
+    }
+
+    private static void siftUp(int[] heap, int i, float[] score) {
+        int doc = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!ranksAbove(heap[parent], doc, score)) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = doc;
+    }
+
+    private static void siftDown(int[] heap, int size, float[] score) {
+        if (size == 0) {
+            return;
+        }
+        int doc = heap[0];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && ranksAbove(heap[child], heap[child + 1], score)) {
+                child++;
+            }
+            if (!ranksAbove(doc, heap[child], score)) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = doc;
+    }
+
+    private Scratch acquireScratch() {
+        Scratch scratch = scratchPool.poll();
+        return scratch != null ? scratch : new Scratch();
+    }
+
+    private void releaseScratch(Scratch scratch) {
+        scratchPool.offer(scratch);
+    }
+
+    private List<PostingList> exactMatches(String token) {
+        PostingList list = terms.get(token);
+        return list != null ? List.of(list) : List.of();
+    }
+
+    private List<PostingList> prefixMatches(String prefix) {
+        List<PostingList> lists = new ArrayList<>();
+        for (PostingList list : terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            lists.add(list);
+            if (lists.size() == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+        }
+        return lists;
+    }
+
+    private float idf(int documentFrequency) {
+        int df = Math.min(documentFrequency, liveDocs);
+        return (float) Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+    }
+
+    private static int postingCount(List<PostingList> lists) {
+        int count = 0;
+        for (PostingList list : lists) {
+            count += list.size;
+        }
+        return count;
+    }
+
+    /**
+     * Per-search working arrays indexed by doc id. Searches run concurrently
+     * under the read lock, so each borrows its own from the pool; the pool only
+     * ever holds as many as there were concurrent searches.
+     */
+    private static final class Scratch {
+        private float[] score = new float[0];
+        private int[] stamp = new int[0];
+        private int[] candidates = new int[0];
+        private int nextStamp = 1;
+
+        // Reserves one stamp per round, growing the arrays to cover every doc id
+        int stamps(int rounds, int docCount) {
+            if (score.length < docCount) {
+                int capacity = Math.max(docCount, score.length * 2);
+                score = new float[capacity];
+                stamp = new int[capacity];
+                candidates = new int[capacity];
+                nextStamp = 1;
+            }
+            if (nextStamp > Integer.MAX_VALUE - rounds) {
+                Arrays.fill(stamp, 0);
+                nextStamp = 1;
+            }
+            int base = nextStamp;
+            nextStamp += rounds;
+            return base;
+        }
+    }
+
+    private static final class PostingList {
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.ecommerce.search;
+
+/**
+ * The searchable text of a product, loaded without hydrating the entity.
+ */
+public record ProductDocument(Long id, String name, String description, String categoryName) {
+}
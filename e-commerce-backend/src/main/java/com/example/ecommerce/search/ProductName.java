@@ -0,0 +1,4 @@
+package com.example.ecommerce.search;
+
+public record ProductName(Long id, String name) {
+}
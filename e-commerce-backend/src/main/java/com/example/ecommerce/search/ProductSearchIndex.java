@@ -0,0 +1,163 @@
+package com.example.ecommerce.search;
+
+import com.example.ecommerce.entity.Category;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.CategoryRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory full-text index over product name, category name and description.
+ *
+ * Built from the database once the application is ready and kept current by
+ * {@code ProductService} on every catalog write. A rebuild runs off to the side
+ * and is swapped in atomically; writes that arrive meanwhile are replayed onto
+ * the new index before the swap.
+ */
+@Component
+public class ProductSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final int BATCH_SIZE = 10_000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    // Guarded by lock
+    private InvertedIndex index = new InvertedIndex();
+    private List<Consumer<InvertedIndex>> pendingUpdates;
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            withWriteLock(() -> pendingUpdates = new ArrayList<>());
+
+            InvertedIndex fresh = new InvertedIndex();
+            Long afterId = 0L;
+            List<ProductDocument> batch;
+            do {
+                batch = productRepository.findSearchDocuments(afterId, PageRequest.of(0, BATCH_SIZE));
+                // Tokenizing dominates the build, so spread it across cores
+                batch.parallelStream()
+                        .map(InvertedIndex::tokenize)
+                        .toList()
+                        .forEach(fresh::add);
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).id();
+                }
+            } while (batch.size() == BATCH_SIZE);
+
+            withWriteLock(() -> {
+                pendingUpdates.forEach(update -> update.accept(fresh));
+                index = fresh;
+                ready = true;
+            });
+            logger.info("Product search index built with {} products in {} ms", fresh.size(),
+                    System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("Failed to build product search index", e);
+        } finally {
+            withWriteLock(() -> pendingUpdates = null);
+            rebuilding.set(false);
+        }
+    }
+
+    public void index(Product product) {
+        InvertedIndex.TokenizedDocument document = InvertedIndex.tokenize(new ProductDocument(
+                product.getId(), product.getName(), product.getDescription(), categoryName(product.getCategory())));
+        apply(index -> index.add(document));
+    }
+
+    // Indexes many products under a single lock acquisition
+    public void indexDocuments(List<ProductDocument> documents) {
+        List<InvertedIndex.TokenizedDocument> tokenized = documents.stream().map(InvertedIndex::tokenize).toList();
+        apply(index -> tokenized.forEach(index::add));
+    }
+
+    public void remove(Long productId) {
+        apply(index -> index.remove(productId));
+    }
+
+    public SearchResult search(String query, int offset, int limit) {
+        List<String> tokens = InvertedIndex.tokenize(query);
+        lock.readLock().lock();
+        try {
+            return index.search(tokens, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<InvertedIndex> update) {
+        boolean compact = false;
+        lock.writeLock().lock();
+        try {
+            update.accept(index);
+            if (pendingUpdates != null) {
+                pendingUpdates.add(update);
+            } else {
+                compact = index.needsCompaction();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (compact) {
+            Thread thread = new Thread(this::rebuild, "product-search-rebuild");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private String categoryName(Category category) {
+        if (category == null) {
+            return null;
+        }
+        // Admin edits often send the category as a bare id
+        if (category.getName() == null && category.getId() != null) {
+            return categoryRepository.findById(category.getId()).map(Category::getName).orElse(null);
+        }
+        return category.getName();
+    }
+}
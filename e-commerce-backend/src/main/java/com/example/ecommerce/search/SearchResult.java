@@ -0,0 +1,9 @@
+package com.example.ecommerce.search;
+
+import java.util.List;
+
+/**
+ * One page of matching product ids in rank order, plus the total number of matches.
+ */
+public record SearchResult(List<Long> productIds, long total) {
+}
@@ -0,0 +1,9 @@
+package com.example.ecommerce.search;
+
+/**
+ * A typeahead completion: either a product name or a category name.
+ */
+public record Suggestion(String text, String type, Long id) {
+    public static final String PRODUCT = "product";
+    public static final String CATEGORY = "category";
+}
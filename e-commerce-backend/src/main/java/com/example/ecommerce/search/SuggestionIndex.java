@@ -0,0 +1,412 @@
+package com.example.ecommerce.search;
+
+import com.example.ecommerce.entity.Category;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.CategoryRepository;
+import com.example.ecommerce.repository.OrderRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Typeahead over product and category names, weighted by units sold.
+ *
+ * The bulk of the entries live in a compact snapshot. Every target keeps its
+ * normalized name once; its keys are the word starts within that name, held
+ * as (target, offset) int pairs sorted by the suffix they begin and searched by
+ * binary search. A range-max tree over the keys finds the heaviest key in any
+ * prefix range, so a lookup pulls out only as many keys as it returns, however
+ * many share the prefix.
+ * Catalog writes go to a small copy-on-write delta plus a set of tombstoned
+ * targets; once either grows past {@link #MAX_DELTA} they are merged into a new
+ * snapshot in memory. Readers only ever see an immutable {@link State}, so
+ * lookups take no locks.
+ *
+ * Units sold are read once per {@link #rebuild()}; sales since then do not
+ * change the ranking until the next rebuild (startup or a catalog refresh).
+ */
+@Component
+public class SuggestionIndex {
+    private static final Logger logger = LoggerFactory.getLogger(SuggestionIndex.class);
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final int MAX_DELTA = 1024;
+    // Words of a name that can start a match, e.g. "phone" finds "Premium Smartphone" via "smartphone"
+    private static final int MAX_WORD_STARTS = 5;
+    // Categories rank ahead of individual products
+    private static final int CATEGORY_WEIGHT = 1_000_000;
+
+    private static final Comparator<Target> RANKING =
+            Comparator.comparingInt(Target::weight).reversed().thenComparing(Target::text);
+
+    public static final int MIN_PREFIX_LENGTH = 2;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private final Map<Long, Integer> unitsSold = new ConcurrentHashMap<>();
+
+    private volatile State state = new State(Snapshot.of(List.of()), new TreeMap<>(), Set.of());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.error("Failed to build suggestion index", e);
+        }
+    }
+
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        unitsSold.clear();
+        for (Object[] row : orderRepository.sumQuantityByProduct()) {
+            unitsSold.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+
+        List<Target> targets = new ArrayList<>();
+        Long afterId = 0L;
+        List<ProductName> batch;
+        do {
+            batch = productRepository.findNamesAfter(afterId, PageRequest.of(0, BATCH_SIZE));
+            for (ProductName product : batch) {
+                targets.add(productTarget(product.id(), product.name()));
+            }
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).id();
+            }
+        } while (batch.size() == BATCH_SIZE);
+        for (Category category : categoryRepository.findAll()) {
+            targets.add(categoryTarget(category));
+        }
+
+        Snapshot snapshot = Snapshot.of(targets);
+        state = new State(snapshot, new TreeMap<>(), Set.of());
+        logger.info("Suggestion index built with {} keys in {} ms", snapshot.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.length() < MIN_PREFIX_LENGTH || limit <= 0) {
+            return List.of();
+        }
+
+        State current = state;
+        Map<Long, Target> matches = new HashMap<>();
+        Snapshot snapshot = current.snapshot();
+        // Ranges of matching keys not yet visited, best first; each visit splits its range around the key taken
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> snapshot.compare(a[2], b[2]));
+        snapshot.pushRange(ranges, snapshot.lowerBound(normalized),
+                snapshot.lowerBound(normalized + Character.MAX_VALUE));
+        while (!ranges.isEmpty() && matches.size() < limit) {
+            int[] range = ranges.poll();
+            int best = range[2];
+            Target target = snapshot.targetOf(best);
+            if (!current.tombstones().contains(target.key())) {
+                matches.putIfAbsent(target.key(), target);
+            }
+            snapshot.pushRange(ranges, range[0], best);
+            snapshot.pushRange(ranges, best + 1, range[1]);
+        }
+        // The delta is small (see MAX_DELTA), so it is scanned in full
+        for (Target target : current.delta().subMap(normalized, normalized + Character.MAX_VALUE).values()) {
+            matches.putIfAbsent(target.key(), target);
+        }
+
+        return matches.values().stream()
+                .sorted(RANKING)
+                .limit(limit)
+                .map(target -> new Suggestion(target.text(), target.type(), target.id()))
+                .toList();
+    }
+
+    public synchronized void putProduct(Product product) {
+        replace(productTarget(product.getId(), product.getName()));
+    }
+
+    public synchronized void removeProduct(Long productId) {
+        remove(productId);
+    }
+
+    public synchronized void putCategory(Category category) {
+        replace(categoryTarget(category));
+    }
+
+    public synchronized void removeCategory(Long categoryId) {
+        remove(~categoryId);
+    }
+
+    private void replace(Target target) {
+        State current = state;
+        TreeMap<String, Target> delta = new TreeMap<>(current.delta());
+        delta.values().removeIf(existing -> existing.key() == target.key());
+        for (int start : wordStarts(target.normalized())) {
+            delta.put(target.normalized().substring(start) + '\0' + target.key(), target);
+        }
+        Set<Long> tombstones = new HashSet<>(current.tombstones());
+        tombstones.add(target.key());
+        publish(new State(current.snapshot(), delta, tombstones));
+    }
+
+    private void remove(long key) {
+        State current = state;
+        TreeMap<String, Target> delta = new TreeMap<>(current.delta());
+        delta.values().removeIf(existing -> existing.key() == key);
+        Set<Long> tombstones = new HashSet<>(current.tombstones());
+        tombstones.add(key);
+        publish(new State(current.snapshot(), delta, tombstones));
+    }
+
+    private void publish(State next) {
+        if (next.delta().size() > MAX_DELTA || next.tombstones().size() > MAX_DELTA) {
+            next = next.compact();
+        }
+        state = next;
+    }
+
+    private Target productTarget(Long id, String name) {
+        return new Target(id, name, normalize(name), Suggestion.PRODUCT, id, 1 + unitsSold.getOrDefault(id, 0));
+    }
+
+    private Target categoryTarget(Category category) {
+        // Category keys are complemented so they never collide with product ids
+        return new Target(~category.getId(), category.getName(), normalize(category.getName()),
+                Suggestion.CATEGORY, category.getId(), CATEGORY_WEIGHT);
+    }
+
+    // Offsets in a normalized name at which a match can begin
+    private static int[] wordStarts(String normalized) {
+        if (normalized.isEmpty()) {
+            return new int[0];
+        }
+        int[] starts = new int[MAX_WORD_STARTS];
+        int count = 1;
+        for (int i = normalized.indexOf(' '); i >= 0 && count < MAX_WORD_STARTS; i = normalized.indexOf(' ', i + 1)) {
+            starts[count++] = i + 1;
+        }
+        return Arrays.copyOf(starts, count);
+    }
+
+    // Orders the suffix of a from aStart against the suffix of b from bStart, as String.compareTo would
+    private static int compareSuffixes(String a, int aStart, String b, int bStart) {
+        int aLength = a.length() - aStart;
+        int bLength = b.length() - bStart;
+        int length = Math.min(aLength, bLength);
+        for (int i = 0; i < length; i++) {
+            char x = a.charAt(aStart + i);
+            char y = b.charAt(bStart + i);
+            if (x != y) {
+                return x - y;
+            }
+        }
+        return aLength - bLength;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                pendingSpace = false;
+                sb.append(Character.toLowerCase(c));
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    private record Target(long key, String text, String normalized, String type, Long id, int weight) {
+    }
+
+    private record State(Snapshot snapshot, TreeMap<String, Target> delta, Set<Long> tombstones) {
+        State compact() {
+            Map<Long, Target> targets = new LinkedHashMap<>(snapshot.targets.length + delta.size());
+            for (Target target : snapshot.targets) {
+                if (!tombstones.contains(target.key())) {
+                    targets.put(target.key(), target);
+                }
+            }
+            // A target with several keys appears once per key in the delta
+            for (Target target : delta.values()) {
+                targets.put(target.key(), target);
+            }
+            return new State(Snapshot.of(targets.values()), new TreeMap<>(), Set.of());
+        }
+    }
+
+    private static final class Snapshot {
+        private final Target[] targets;
+        // Key i is the suffix of targets[keyTarget[i]].normalized from keyStart[i]; keys are sorted by it
+        private final int[] keyTarget;
+        private final int[] keyStart;
+        // Bottom-up segment tree over the keys: the leaf of key i is at size + i and
+        // every inner node holds the index of the best-ranked key below it
+        private final int[] bestKey;
+
+        private Snapshot(Target[] targets, int[] keyTarget, int[] keyStart) {
+            this.targets = targets;
+            this.keyTarget = keyTarget;
+            this.keyStart = keyStart;
+            int n = keyTarget.length;
+            this.bestKey = new int[2 * n];
+            for (int i = 0; i < n; i++) {
+                bestKey[n + i] = i;
+            }
+            for (int node = n - 1; node > 0; node--) {
+                bestKey[node] = better(bestKey[2 * node], bestKey[2 * node + 1]);
+            }
+        }
+
+        static Snapshot of(Collection<Target> candidates) {
+            List<Target> kept = new ArrayList<>(candidates.size());
+            List<int[]> starts = new ArrayList<>(candidates.size());
+            int keys = 0;
+            for (Target target : candidates) {
+                int[] targetStarts = wordStarts(target.normalized());
+                if (targetStarts.length > 0) {
+                    kept.add(target);
+                    starts.add(targetStarts);
+                    keys += targetStarts.length;
+                }
+            }
+            Target[] targets = kept.toArray(new Target[0]);
+
+            int[] unsortedTarget = new int[keys];
+            int[] unsortedStart = new int[keys];
+            int key = 0;
+            for (int t = 0; t < targets.length; t++) {
+                for (int start : starts.get(t)) {
+                    unsortedTarget[key] = t;
+                    unsortedStart[key] = start;
+                    key++;
+                }
+            }
+
+            int[] order = new int[keys];
+            for (int i = 0; i < keys; i++) {
+                order[i] = i;
+            }
+            IntBinaryOperator bySuffix = (a, b) -> compareSuffixes(targets[unsortedTarget[a]].normalized(),
+                    unsortedStart[a], targets[unsortedTarget[b]].normalized(), unsortedStart[b]);
+            mergeSort(order, new int[keys], 0, keys, bySuffix);
+
+            int[] keyTarget = new int[keys];
+            int[] keyStart = new int[keys];
+            for (int i = 0; i < keys; i++) {
+                keyTarget[i] = unsortedTarget[order[i]];
+                keyStart[i] = unsortedStart[order[i]];
+            }
+            return new Snapshot(targets, keyTarget, keyStart);
+        }
+
+        // Sorts indices in [from, to) without boxing them
+        private static void mergeSort(int[] a, int[] scratch, int from, int to, IntBinaryOperator comparator) {
+            if (to - from < 2) {
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            mergeSort(a, scratch, from, mid, comparator);
+            mergeSort(a, scratch, mid, to, comparator);
+            if (comparator.applyAsInt(a[mid - 1], a[mid]) <= 0) {
+                return;
+            }
+            System.arraycopy(a, from, scratch, from, to - from);
+            for (int i = from, left = from, right = mid; i < to; i++) {
+                if (right >= to || (left < mid && comparator.applyAsInt(scratch[left], scratch[right]) <= 0)) {
+                    a[i] = scratch[left++];
+                } else {
+                    a[i] = scratch[right++];
+                }
+            }
+        }
+
+        int size() {
+            return keyTarget.length;
+        }
+
+        Target targetOf(int keyIndex) {
+            return targets[keyTarget[keyIndex]];
+        }
+
+        int compare(int a, int b) {
+            return RANKING.compare(targetOf(a), targetOf(b));
+        }
+
+        // Queues [from, to) with the index of its best key, unless it is empty
+        void pushRange(PriorityQueue<int[]> ranges, int from, int to) {
+            if (from < to) {
+                ranges.add(new int[]{from, to, best(from, to)});
+            }
+        }
+
+        private int best(int from, int to) {
+            int n = keyTarget.length;
+            int best = -1;
+            for (int left = from + n, right = to + n; left < right; left >>= 1, right >>= 1) {
+                if ((left & 1) == 1) {
+                    best = better(best, bestKey[left++]);
+                }
+                if ((right & 1) == 1) {
+                    best = better(best, bestKey[--right]);
+                }
+            }
+            return best;
+        }
+
+        private int better(int a, int b) {
+            if (a < 0) {
+                return b;
+            }
+            return compare(a, b) <= 0 ? a : b;
+        }
+
+        int lowerBound(String prefix) {
+            int low = 0;
+            int high = keyTarget.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compareSuffixes(targetOf(mid).normalized(), keyStart[mid], prefix, 0) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.ecommerce.security;
+
+import com.example.ecommerce.security.ratelimit.RateLimitFilter;
+import com.example.ecommerce.security.ratelimit.RateLimitPolicy;
+import com.example.ecommerce.security.ratelimit.RateLimitPolicy.KeyType;
+import com.example.ecommerce.security.ratelimit.RateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
+
+/**
+ * Per-route rate limits, applied right after the JWT filter so user-keyed
+ * policies can see the principal. Routes the JWT filter skips (catalog reads,
+ * guest carts) never have one and must be keyed by IP.
+ */
+@Configuration
+public class RateLimitConfig {
+    @Value("${app.rateLimit.maxKeys:1000000}")
+    private int maxKeys;
+
+    @Bean
+    public RateLimitFilter rateLimitFilter() {
+        return new RateLimitFilter(List.of(
+                // Credential stuffing
+                new RateLimitPolicy("login", antMatcher(HttpMethod.POST, "/api/auth/login"), KeyType.IP,
+                        new RateLimiter(10, Duration.ofMinutes(1), maxKeys)),
+                new RateLimitPolicy("register", antMatcher(HttpMethod.POST, "/api/auth/register"), KeyType.IP,
+                        new RateLimiter(5, Duration.ofMinutes(1), maxKeys)),
+                // Scrapers on the LIKE search
+                new RateLimitPolicy("search", antMatcher(HttpMethod.GET, "/api/products/search"), KeyType.IP,
+                        new RateLimiter(60, Duration.ofMinutes(1), maxKeys)),
+                // Guest carts share a bounded in-memory store
+                new RateLimitPolicy("guest-cart", antMatcher(HttpMethod.POST, "/api/cart/guest/**"), KeyType.IP,
+                        new RateLimiter(60, Duration.ofMinutes(1), maxKeys))));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.ecommerce.security.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final List<RateLimitPolicy> policies;
+
+    public RateLimitFilter(List<RateLimitPolicy> policies) {
+        this.policies = policies;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        for (RateLimitPolicy policy : policies) {
+            if (!policy.matches(request)) {
+                continue;
+            }
+            long waitNanos = policy.tryAcquire(request);
+            if (waitNanos > 0) {
+                logger.warn("Rate limit '{}' exceeded by {}", policy.getName(), request.getRemoteAddr());
+                long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+                response.getWriter().write("Error: Too many requests");
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
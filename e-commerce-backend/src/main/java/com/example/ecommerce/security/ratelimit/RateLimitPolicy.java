@@ -0,0 +1,52 @@
+package com.example.ecommerce.security.ratelimit;
+
+import com.example.ecommerce.security.services.UserDetailsImpl;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+/**
+ * A rate limit applied to the requests matched by one route.
+ */
+public class RateLimitPolicy {
+    public enum KeyType {
+        IP,
+        // Authenticated user id, falling back to the client IP for anonymous requests
+        USER_OR_IP
+    }
+
+    private final String name;
+    private final RequestMatcher matcher;
+    private final KeyType keyType;
+    private final RateLimiter limiter;
+
+    public RateLimitPolicy(String name, RequestMatcher matcher, KeyType keyType, RateLimiter limiter) {
+        this.name = name;
+        this.matcher = matcher;
+        this.keyType = keyType;
+        this.limiter = limiter;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean matches(HttpServletRequest request) {
+        return matcher.matches(request);
+    }
+
+    public long tryAcquire(HttpServletRequest request) {
+        return limiter.tryAcquire(resolveKey(request));
+    }
+
+    private String resolveKey(HttpServletRequest request) {
+        if (keyType == KeyType.USER_OR_IP) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl user) {
+                return "u:" + user.getId();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.ecommerce.security.ratelimit;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lock-free token buckets keyed by client. Each bucket is a single AtomicLong
+ * holding its theoretical arrival time (GCRA), so acquiring a token is one CAS
+ * with no allocation once the key is known.
+ *
+ * A bucket whose arrival time has passed is full, which makes it
+ * indistinguishable from a missing one; those are the first to go when the
+ * number of keys reaches the limit.
+ */
+public class RateLimiter {
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final int maxKeys;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    public RateLimiter(int capacity, Duration refillPeriod, int maxKeys) {
+        this.emissionIntervalNanos = refillPeriod.toNanos() / capacity;
+        this.burstNanos = emissionIntervalNanos * capacity;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Takes one token for the key. Returns 0 when allowed, otherwise the number
+     * of nanoseconds until the next token becomes available.
+     */
+    public long tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    // Takes the clock reading explicitly, so the refill maths can be checked without waiting
+    long tryAcquire(String key, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                evict(now);
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long tat = bucket.get();
+            long newTat = Math.max(tat, now) + emissionIntervalNanos;
+            long wait = newTat - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private void evict(long now) {
+        // One thread sweeps; the others carry on rather than queueing behind it
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+
+            // Still over the limit with live buckets: drop some, which at worst
+            // hands those clients a fresh bucket
+            int target = maxKeys - maxKeys / 10;
+            Iterator<AtomicLong> it = buckets.values().iterator();
+            while (buckets.size() >= target && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.ecommerce.security.services;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Access to the authenticated principal, so services can work with the user id
+ * carried in the token instead of looking the user up by email.
+ */
+public final class CurrentUser {
+    private CurrentUser() {
+    }
+
+    public static UserDetailsImpl get() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetailsImpl principal)) {
+            throw new RuntimeException("User not authenticated");
+        }
+        return principal;
+    }
+
+    public static Long getId() {
+        return get().getId();
+    }
+}
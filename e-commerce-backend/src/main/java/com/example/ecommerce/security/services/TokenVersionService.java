@@ -0,0 +1,60 @@
+package com.example.ecommerce.security.services;
+
+import com.example.ecommerce.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Checks the version stamp carried in a JWT against the user's current
+ * token_version. The last known stamp per user is remembered, so storage is
+ * only consulted when a token presents a newer stamp or the remembered one
+ * has gone stale.
+ */
+@Service
+public class TokenVersionService {
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${app.tokenVersionCheck:true}")
+    private boolean enabled;
+
+    @Value("${app.tokenVersionCacheTtlMs:60000}")
+    private long cacheTtlMs;
+
+    private final ConcurrentHashMap<Long, Stamp> stamps = new ConcurrentHashMap<>();
+
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        if (!enabled) {
+            return true;
+        }
+
+        long now = System.currentTimeMillis();
+        Stamp stamp = stamps.get(userId);
+        if (stamp == null || tokenVersion > stamp.version() || now - stamp.checkedAt() > cacheTtlMs) {
+            Integer current = userRepository.findTokenVersionById(userId).orElse(null);
+            if (current == null) {
+                stamps.remove(userId);
+                return false;
+            }
+            stamp = new Stamp(current, now);
+            stamps.put(userId, stamp);
+        }
+        return stamp.version() == tokenVersion;
+    }
+
+    /**
+     * Invalidates every token issued to the user so far, e.g. after a role change.
+     */
+    @Transactional
+    public void revokeTokens(Long userId) {
+        userRepository.incrementTokenVersion(userId);
+        stamps.remove(userId);
+    }
+
+    private record Stamp(int version, long checkedAt) {
+    }
+}
@@ -24,14 +24,23 @@ public class UserDetailsImpl implements UserDetails {
 
     private Collection<? extends GrantedAuthority> authorities;
 
+    @JsonIgnore
+    private int tokenVersion;
+
     public UserDetailsImpl(Long id, String username, String email, String name, String password,
             Collection<? extends GrantedAuthority> authorities) {
+        this(id, username, email, name, password, authorities, 0);
+    }
+
+    public UserDetailsImpl(Long id, String username, String email, String name, String password,
+            Collection<? extends GrantedAuthority> authorities, int tokenVersion) {
         this.id = id;
         this.username = username;
         this.email = email;
         this.name = name;
         this.password = password;
         this.authorities = authorities;
+        this.tokenVersion = tokenVersion;
     }
 
     public static UserDetailsImpl build(User user) {
@@ -45,7 +54,8 @@ public class UserDetailsImpl implements UserDetails {
                 user.getEmail(),
                 user.getName(),
                 user.getPassword(),
-                authorities);
+                authorities,
+                user.getTokenVersion());
     }
 
     @Override
@@ -65,6 +75,10 @@ public class UserDetailsImpl implements UserDetails {
         return name;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
     @Override
     public String getPassword() {
         return password;
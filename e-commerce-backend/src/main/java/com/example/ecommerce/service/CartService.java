@@ -1,84 +1,180 @@
 package com.example.ecommerce.service;
 
-import com.example.ecommerce.entity.Cart;
-import com.example.ecommerce.entity.CartItem;
+import com.example.ecommerce.cart.CartEdit;
+import com.example.ecommerce.cart.CartLine;
+import com.example.ecommerce.cart.CartPricing;
+import com.example.ecommerce.cart.CartSnapshot;
+import com.example.ecommerce.cart.CartStore;
+import com.example.ecommerce.cart.GuestCartStore;
+import com.example.ecommerce.dto.CartOperation;
+import com.example.ecommerce.dto.CartView;
+import com.example.ecommerce.dto.GuestCartView;
 import com.example.ecommerce.entity.Product;
-import com.example.ecommerce.entity.User;
-import com.example.ecommerce.repository.CartRepository;
-import com.example.ecommerce.repository.ProductRepository;
-import com.example.ecommerce.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.util.Optional;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+// Carts live in the write-behind CartStore, guest carts in GuestCartStore; nothing here touches the cart tables
 @Service
 public class CartService {
+    private static final int MAX_OPERATIONS = 200;
+
     @Autowired
-    private CartRepository cartRepository;
+    private CartStore cartStore;
 
     @Autowired
-    private UserRepository userRepository;
+    private GuestCartStore guestCarts;
 
     @Autowired
-    private ProductRepository productRepository;
-
-    public Cart getCartByUserEmail(String email) {
-        User user = userRepository.findByEmail(email).orElseThrow(() -> new RuntimeException("User not found"));
-        return cartRepository.findByUserId(user.getId()).orElseGet(() -> {
-            Cart cart = new Cart();
-            cart.setUser(user);
-            return cartRepository.save(cart);
-        });
-    }
+    private ProductService productService;
 
-    @Transactional
-    public Cart addToCart(String email, Long productId, int quantity) {
-        Cart cart = getCartByUserEmail(email);
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+    public CartView getCart(Long userId) {
+        return toView(cartStore.get(userId));
+    }
 
-        Optional<CartItem> existingItem = cart.getItems().stream()
-                .filter(item -> item.getProduct().getId().equals(productId))
-                .findFirst();
+    public List<CartLine> getLines(Long userId) {
+        return cartStore.get(userId).lines();
+    }
 
-        if (existingItem.isPresent()) {
-            existingItem.get().setQuantity(existingItem.get().getQuantity() + quantity);
-        } else {
-            CartItem newItem = new CartItem();
-            newItem.setCart(cart);
-            newItem.setProduct(product);
-            newItem.setQuantity(quantity);
-            newItem.setPrice(product.getPrice()); // Set price at add time if we use that field
-            cart.getItems().add(newItem);
+    public CartView addToCart(Long userId, Long productId, int quantity) {
+        if (quantity < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Quantity must be at least 1");
         }
+        Product product = productService.getProductById(productId);
+        return toView(cartStore.add(userId, productId, quantity, product.getPrice()));
+    }
+
+    public CartView updateQuantity(Long userId, Long productId, int quantity) {
+        return toView(cartStore.setQuantity(userId, productId, quantity));
+    }
+
+    public CartView removeFromCart(Long userId, Long productId) {
+        return toView(cartStore.remove(userId, productId));
+    }
+
+    /**
+     * Applies all operations to the cart as one unit, with a single product
+     * lookup for the whole batch. Either every operation applies or none does.
+     */
+    public CartView applyOperations(Long userId, List<CartOperation> operations) {
+        return toView(cartStore.apply(userId, toEdits(operations)));
+    }
+
+    // An unknown or expired token reads as an empty cart without a token
+    public GuestCartView getGuestCart(String token) {
+        CartSnapshot cart = guestCarts.get(token);
+        return new GuestCartView(cart.lines().isEmpty() ? null : token, toView(cart));
+    }
 
-        return cartRepository.save(cart);
+    /**
+     * Like applyOperations for an anonymous shopper's cart. The response
+     * carries the cart token to use from then on, which changes when the
+     * given one had expired.
+     */
+    public GuestCartView applyGuestOperations(String token, List<CartOperation> operations) {
+        GuestCartStore.Result result = guestCarts.apply(token, toEdits(operations));
+        return new GuestCartView(result.token(), toView(result.cart()));
     }
 
-    @Transactional
-    public Cart updateQuantity(String email, Long cartItemId, int quantity) {
-        Cart cart = getCartByUserEmail(email);
-        CartItem item = cart.getItems().stream()
-                .filter(i -> i.getId().equals(cartItemId))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Item not found"));
-        item.setQuantity(quantity);
-        return cartRepository.save(cart);
+    /**
+     * Moves a guest cart's lines into the user's cart as one change, so they
+     * reach the database in a single batched write. Quantities of products
+     * already in the user's cart are added together. Taking the lines first
+     * keeps two concurrent logins from merging them twice; if the merge
+     * fails they go back under the same token.
+     */
+    public void mergeGuestCart(Long userId, String token) {
+        List<CartLine> lines = guestCarts.take(token);
+        if (lines.isEmpty()) {
+            return;
+        }
+        List<CartEdit> edits = new ArrayList<>(lines.size());
+        for (CartLine line : lines) {
+            edits.add(CartEdit.add(line.productId(), line.quantity(), line.price()));
+        }
+        try {
+            cartStore.apply(userId, edits);
+        } catch (RuntimeException e) {
+            guestCarts.restore(token, lines);
+            throw e;
+        }
     }
 
-    @Transactional
-    public Cart removeFromCart(String email, Long cartItemId) {
-        Cart cart = getCartByUserEmail(email);
-        cart.getItems().removeIf(item -> item.getId().equals(cartItemId));
-        return cartRepository.save(cart);
+    private List<CartEdit> toEdits(List<CartOperation> operations) {
+        if (operations.isEmpty() || operations.size() > MAX_OPERATIONS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A batch needs between 1 and " + MAX_OPERATIONS + " operations");
+        }
+        Set<Long> productIds = new HashSet<>();
+        for (CartOperation operation : operations) {
+            if (operation.getOp() == null || operation.getProductId() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Every operation needs an op and a productId");
+            }
+            if ((operation.getOp() == CartOperation.Type.ADD && operation.getQuantity() < 1)
+                    || (operation.getOp() == CartOperation.Type.SET && operation.getQuantity() < 0)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid quantity for product "
+                        + operation.getProductId());
+            }
+            if (operation.getOp() != CartOperation.Type.REMOVE) {
+                productIds.add(operation.getProductId());
+            }
+        }
+        Map<Long, Product> products = productService.findProductsById(productIds);
+
+        List<CartEdit> edits = new ArrayList<>(operations.size());
+        for (CartOperation operation : operations) {
+            Long productId = operation.getProductId();
+            Product product = products.get(productId);
+            if (product == null && operation.getOp() == CartOperation.Type.ADD) {
+                throw new RuntimeException("Product not found");
+            }
+            BigDecimal price = product != null ? product.getPrice() : null;
+            edits.add(switch (operation.getOp()) {
+                case ADD -> CartEdit.add(productId, operation.getQuantity(), price);
+                case SET -> CartEdit.set(productId, operation.getQuantity(), price);
+                case REMOVE -> CartEdit.set(productId, 0, null);
+            });
+        }
+        return edits;
+    }
+
+    // Inside a transaction the cart is only emptied once it commits, e.g. after an order is stored
+    public void clearCart(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cartStore.clear(userId);
+                }
+            });
+        } else {
+            cartStore.clear(userId);
+        }
     }
 
-    @Transactional
-    public void clearCart(String email) {
-        Cart cart = getCartByUserEmail(email);
-        cart.getItems().clear();
-        cartRepository.save(cart);
+    private CartView toView(CartSnapshot cart) {
+        Map<Long, Product> products = productService.findProductsById(cart.unitCents().keySet());
+        List<CartView.Item> items = new ArrayList<>(cart.lines().size());
+        for (CartLine line : cart.lines()) {
+            Product product = products.get(line.productId());
+            Long unitCents = cart.unitCents().get(line.productId());
+            if (product != null && unitCents != null) {
+                items.add(new CartView.Item(product.getId(), product.getName(), product.getImageUrl(),
+                        CartPricing.toAmount(unitCents), product.getStock(), line.quantity(),
+                        CartPricing.toAmount(unitCents * line.quantity())));
+            }
+        }
+        return new CartView(items, cart.itemCount(), CartPricing.toAmount(cart.subtotalCents()));
     }
 }
@@ -1,7 +1,12 @@
 package com.example.ecommerce.service;
 
+import com.example.ecommerce.cache.CatalogVersion;
+import com.example.ecommerce.cache.CategoryTree;
+import com.example.ecommerce.cache.CategoryTreeCache;
 import com.example.ecommerce.entity.Category;
 import com.example.ecommerce.repository.CategoryRepository;
+import com.example.ecommerce.search.FacetIndex;
+import com.example.ecommerce.search.SuggestionIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -12,19 +17,44 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
+    @Autowired
+    private FacetIndex facetIndex;
+
+    @Autowired
+    private CategoryTreeCache categoryTree;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
     public List<Category> getAllCategories() {
         return categoryRepository.findAll();
     }
 
+    public List<CategoryTree.Node> getCategoryTree() {
+        return categoryTree.get().roots();
+    }
+
     public Category getCategoryById(Long id) {
         return categoryRepository.findById(id).orElseThrow(() -> new RuntimeException("Category not found"));
     }
 
     public Category addCategory(Category category) {
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        categoryTree.rebuild();
+        suggestionIndex.putCategory(saved);
+        facetIndex.putCategory(saved);
+        catalogVersion.bump();
+        return saved;
     }
 
     public void deleteCategory(Long id) {
         categoryRepository.deleteById(id);
+        categoryTree.rebuild();
+        suggestionIndex.removeCategory(id);
+        facetIndex.removeCategory(id);
+        catalogVersion.bump();
     }
 }
@@ -0,0 +1,227 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.OrderExportRow;
+import com.example.ecommerce.dto.ProductExportRow;
+import com.example.ecommerce.repository.OrderRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the catalog and order history as NDJSON or CSV straight from a
+ * forward-only, streaming result set. Rows are flat projections, never managed
+ * entities, and the output is flushed every {@link #FLUSH_EVERY} rows, so heap
+ * use does not depend on table size.
+ */
+@Service
+public class ExportService {
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    private static final int FLUSH_EVERY = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private TransactionTemplate readOnlyTransaction;
+    private ObjectWriter rowWriter;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public void exportProducts(String format, OutputStream out) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<ProductExportRow> rows = productRepository.streamExportRows()) {
+                if (CSV.equals(format)) {
+                    writeProductsCsv(rows.iterator(), out);
+                } else {
+                    writeNdjson(rows.iterator(), out);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public void exportOrders(String format, OutputStream out) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<OrderExportRow> rows = orderRepository.streamExportRows()) {
+                if (CSV.equals(format)) {
+                    writeOrdersCsv(rows.iterator(), out);
+                } else {
+                    writeOrdersNdjson(rows.iterator(), out);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void writeNdjson(Iterator<?> rows, OutputStream out) throws IOException {
+        try (JsonGenerator json = generator(out)) {
+            long count = 0;
+            while (rows.hasNext()) {
+                rowWriter.writeValue(json, rows.next());
+                json.writeRaw('\n');
+                periodicFlush(json, ++count);
+            }
+        }
+    }
+
+    // Lines of one order are adjacent, so each order is assembled and written as soon as its last line is read
+    private void writeOrdersNdjson(Iterator<OrderExportRow> rows, OutputStream out) throws IOException {
+        try (JsonGenerator json = generator(out)) {
+            Long currentOrder = null;
+            long count = 0;
+            while (rows.hasNext()) {
+                OrderExportRow row = rows.next();
+                if (!row.orderId().equals(currentOrder)) {
+                    if (currentOrder != null) {
+                        endOrder(json);
+                        periodicFlush(json, ++count);
+                    }
+                    startOrder(json, row);
+                    currentOrder = row.orderId();
+                }
+                if (row.productId() != null) {
+                    json.writeStartObject();
+                    json.writeNumberField("productId", row.productId());
+                    json.writeNumberField("quantity", row.quantity());
+                    json.writeNumberField("price", row.itemPrice());
+                    json.writeEndObject();
+                }
+            }
+            if (currentOrder != null) {
+                endOrder(json);
+            }
+        }
+    }
+
+    private void startOrder(JsonGenerator json, OrderExportRow row) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", row.orderId());
+        json.writeFieldName("createdAt");
+        rowWriter.writeValue(json, row.createdAt());
+        json.writeStringField("status", row.status());
+        json.writeNumberField("totalAmount", row.totalAmount());
+        json.writeStringField("paymentMethod", row.paymentMethod());
+        json.writeStringField("shippingFullName", row.shippingFullName());
+        json.writeStringField("shippingCity", row.shippingCity());
+        json.writeStringField("shippingCountry", row.shippingCountry());
+        json.writeNumberField("userId", row.userId());
+        json.writeStringField("userEmail", row.userEmail());
+        json.writeArrayFieldStart("items");
+    }
+
+    private void endOrder(JsonGenerator json) throws IOException {
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private void writeProductsCsv(Iterator<ProductExportRow> rows, OutputStream out) throws IOException {
+        Writer csv = writer(out);
+        csv.write("id,name,description,price,stock,imageUrl,categoryId,categoryName,createdAt\n");
+        long count = 0;
+        while (rows.hasNext()) {
+            ProductExportRow row = rows.next();
+            writeCsvLine(csv, row.id(), row.name(), row.description(), row.price(), row.stock(), row.imageUrl(),
+                    row.categoryId(), row.categoryName(), row.createdAt());
+            periodicFlush(csv, ++count);
+        }
+        csv.flush();
+    }
+
+    private void writeOrdersCsv(Iterator<OrderExportRow> rows, OutputStream out) throws IOException {
+        Writer csv = writer(out);
+        csv.write("orderId,createdAt,status,totalAmount,paymentMethod,shippingFullName,shippingCity,"
+                + "shippingCountry,userId,userEmail,productId,quantity,itemPrice\n");
+        long count = 0;
+        while (rows.hasNext()) {
+            OrderExportRow row = rows.next();
+            writeCsvLine(csv, row.orderId(), row.createdAt(), row.status(), row.totalAmount(), row.paymentMethod(),
+                    row.shippingFullName(), row.shippingCity(), row.shippingCountry(), row.userId(),
+                    row.userEmail(), row.productId(), row.quantity(), row.itemPrice());
+            periodicFlush(csv, ++count);
+        }
+        csv.flush();
+    }
+
+    private static void writeCsvLine(Writer csv, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                csv.write(',');
+            }
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0
+                    || text.indexOf('\r') >= 0) {
+                csv.write('"');
+                csv.write(text.replace("\"", "\"\""));
+                csv.write('"');
+            } else {
+                csv.write(text);
+            }
+        }
+        csv.write('\n');
+    }
+
+    private JsonGenerator generator(OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        // The servlet container owns the response stream
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return json;
+    }
+
+    private static Writer writer(OutputStream out) {
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    private void periodicFlush(Flushable target, long count) throws IOException {
+        if (count % FLUSH_EVERY == 0) {
+            target.flush();
+            // Keep the persistence context empty between chunks
+            entityManager.clear();
+        }
+    }
+}
@@ -1,39 +1,53 @@
 package com.example.ecommerce.service;
 
+import com.example.ecommerce.cart.CartLine;
+import com.example.ecommerce.cart.CartPricing;
+import com.example.ecommerce.dto.CursorPage;
 import com.example.ecommerce.dto.OrderRequest;
 import com.example.ecommerce.entity.*;
 import com.example.ecommerce.repository.OrderRepository;
+import com.example.ecommerce.repository.ProductRepository;
 import com.example.ecommerce.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private CartService cartService;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private CartService cartService;
+    private ProductRepository productRepository;
 
     @Transactional
-    public Order placeOrder(String email, OrderRequest orderRequest) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public Order placeOrder(Long userId, OrderRequest orderRequest) {
+        List<CartLine> lines = cartService.getLines(userId);
 
-        Cart cart = cartService.getCartByUserEmail(email);
-
-        if (cart.getItems().isEmpty()) {
+        if (lines.isEmpty()) {
             throw new RuntimeException("Cart is empty");
         }
 
+        // The id comes from a verified token, so a reference is enough to set the foreign key
+        User user = userRepository.getReferenceById(userId);
+        Map<Long, Product> products = productRepository.findAllById(lines.stream().map(CartLine::productId).toList())
+                .stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+
         Order order = new Order();
         order.setUser(user);
 
@@ -53,18 +67,24 @@ public class OrderService {
         order.setStatus("PENDING");
 
         List<OrderItem> orderItems = new ArrayList<>();
-        BigDecimal total = BigDecimal.ZERO;
+        long totalCents = 0;
 
-        for (CartItem cartItem : cart.getItems()) {
+        for (CartLine line : lines) {
+            Product product = products.get(line.productId());
+            if (product == null) {
+                throw new RuntimeException("Product not found");
+            }
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
-            orderItem.setProduct(cartItem.getProduct());
-            orderItem.setQuantity(cartItem.getQuantity());
-            orderItem.setPrice(cartItem.getProduct().getPrice());
+            orderItem.setProduct(product);
+            orderItem.setQuantity(line.quantity());
+            orderItem.setPrice(product.getPrice());
             orderItems.add(orderItem);
 
-            total = total.add(orderItem.getPrice().multiply(BigDecimal.valueOf(orderItem.getQuantity())));
+            totalCents = Math.addExact(totalCents,
+                    Math.multiplyExact(CartPricing.toCents(product.getPrice()), (long) line.quantity()));
         }
+        BigDecimal total = CartPricing.toAmount(totalCents);
 
         order.setItems(orderItems);
         order.setTotalAmount(total);
@@ -80,26 +100,28 @@ public class OrderService {
         Order savedOrder = orderRepository.save(order);
 
         // Clear cart
-        cartService.clearCart(email);
+        cartService.clearCart(userId);
 
         return savedOrder;
     }
 
-    public List<Order> getUserOrders(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return orderRepository.findByUserId(user.getId());
+    public List<Order> getUserOrders(Long userId) {
+        return orderRepository.findByUserId(userId);
     }
 
-    public Order getOrderById(String email, Long orderId) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public CursorPage<Order> getUserOrdersByCursor(Long userId, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor, "id");
+        long beforeId = after == null ? Long.MAX_VALUE : after.id();
+        return toCursorPage(orderRepository.findByUserIdAndIdLessThanOrderByIdDesc(userId, beforeId,
+                PageRequest.of(0, Math.max(1, Math.min(size, 100)))));
+    }
 
+    public Order getOrderById(Long userId, Long orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
         // Verify the order belongs to the user
-        if (!order.getUser().getId().equals(user.getId())) {
+        if (!order.getUser().getId().equals(userId)) {
             throw new RuntimeException("Unauthorized access to order");
         }
 
@@ -107,15 +129,12 @@ public class OrderService {
     }
 
     @Transactional
-    public Order cancelOrder(String email, Long orderId) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public Order cancelOrder(Long userId, Long orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
         // Verify the order belongs to the user
-        if (!order.getUser().getId().equals(user.getId())) {
+        if (!order.getUser().getId().equals(userId)) {
             throw new RuntimeException("Unauthorized access to order");
         }
 
@@ -133,6 +152,22 @@ public class OrderService {
         return orderRepository.findAll();
     }
 
+    public CursorPage<Order> getAllOrdersByCursor(String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor, "id");
+        long beforeId = after == null ? Long.MAX_VALUE : after.id();
+        return toCursorPage(orderRepository.findByIdLessThanOrderByIdDesc(beforeId,
+                PageRequest.of(0, Math.max(1, Math.min(size, 100)))));
+    }
+
+    private CursorPage<Order> toCursorPage(Slice<Order> slice) {
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            Order last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            nextCursor = KeysetCursor.encode("id", null, last.getId());
+        }
+        return new CursorPage<>(slice.getContent(), nextCursor);
+    }
+
     @Transactional
     public Order updateOrderStatus(Long orderId, String newStatus) {
         Order order = orderRepository.findById(orderId)
@@ -0,0 +1,144 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.cache.CatalogVersion;
+import com.example.ecommerce.cache.ProductCache;
+import com.example.ecommerce.dto.BulkUpdateReport;
+import com.example.ecommerce.dto.ProductBulkUpdate;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.search.FacetIndex;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies price/stock patches as set-based SQL: each chunk of rows becomes one
+ * UPDATE with CASE expressions keyed by id, instead of a load and save per
+ * product.
+ */
+@Service
+public class ProductBulkUpdateService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductBulkUpdateService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private FacetIndex facetIndex;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Value("${app.productBulkUpdate.chunkSize:1000}")
+    private int chunkSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public BulkUpdateReport update(List<ProductBulkUpdate> updates) {
+        for (ProductBulkUpdate update : updates) {
+            validate(update);
+        }
+
+        long start = System.currentTimeMillis();
+        long affected = 0;
+        int statements = 0;
+        for (int from = 0; from < updates.size(); from += chunkSize) {
+            List<ProductBulkUpdate> chunk = updates.subList(from, Math.min(from + chunkSize, updates.size()));
+            Integer rows = transactionTemplate.execute(status -> applyChunk(chunk));
+            affected += rows;
+            statements++;
+            refreshCaches(chunk);
+        }
+        if (affected > 0) {
+            catalogVersion.bump();
+        }
+
+        BulkUpdateReport report = new BulkUpdateReport(updates.size(), affected, statements,
+                System.currentTimeMillis() - start);
+        logger.info("Bulk updated {} of {} products in {} ms ({} rows/s)", affected, updates.size(),
+                report.getElapsedMs(), report.getRowsPerSecond());
+        return report;
+    }
+
+    private int applyChunk(List<ProductBulkUpdate> chunk) {
+        StringBuilder price = new StringBuilder("price = case id");
+        StringBuilder stock = new StringBuilder("stock = case id");
+        List<Object> priceArgs = new ArrayList<>();
+        List<Object> stockArgs = new ArrayList<>();
+        List<Object> ids = new ArrayList<>(chunk.size());
+        for (ProductBulkUpdate update : chunk) {
+            if (update.getPrice() != null) {
+                price.append(" when ? then ?");
+                priceArgs.add(update.getId());
+                priceArgs.add(update.getPrice());
+            }
+            if (update.getStock() != null) {
+                stock.append(" when ? then ?");
+                stockArgs.add(update.getId());
+                stockArgs.add(update.getStock());
+            }
+            ids.add(update.getId());
+        }
+
+        StringBuilder sql = new StringBuilder("update products set ");
+        List<Object> args = new ArrayList<>(priceArgs.size() + stockArgs.size() + ids.size());
+        if (!priceArgs.isEmpty()) {
+            sql.append(price).append(" else price end, ");
+            args.addAll(priceArgs);
+        }
+        if (!stockArgs.isEmpty()) {
+            sql.append(stock).append(" else stock end, ");
+            args.addAll(stockArgs);
+        }
+        // Keeps optimistic locking and per-product ETags honest
+        sql.append("version = version + 1 where id in (");
+        sql.append("?, ".repeat(ids.size() - 1)).append("?)");
+        args.addAll(ids);
+        return jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    private void refreshCaches(List<ProductBulkUpdate> chunk) {
+        List<Long> ids = chunk.stream().map(ProductBulkUpdate::getId).toList();
+        ids.forEach(productCache::invalidate);
+        facetIndex.putSources(productRepository.findFacetSourcesByIdIn(ids));
+    }
+
+    private static void validate(ProductBulkUpdate update) {
+        if (update.getId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Every update needs an id");
+        }
+        if (update.getPrice() == null && update.getStock() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Update for product " + update.getId()
+                    + " sets neither price nor stock");
+        }
+        if ((update.getPrice() != null && update.getPrice().signum() < 0)
+                || (update.getStock() != null && update.getStock() < 0)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Update for product " + update.getId()
+                    + " has a negative price or stock");
+        }
+    }
+}
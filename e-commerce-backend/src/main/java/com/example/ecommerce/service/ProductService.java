@@ -1,49 +1,305 @@
 package com.example.ecommerce.service;
 
+import com.example.ecommerce.cache.CatalogVersion;
+import com.example.ecommerce.cache.CategoryTree;
+import com.example.ecommerce.cache.CategoryTreeCache;
+import com.example.ecommerce.cache.ProductCache;
+import com.example.ecommerce.dto.CursorPage;
+import com.example.ecommerce.dto.ProductFacetResponse;
+import com.example.ecommerce.dto.ProductPatch;
+import com.example.ecommerce.dto.ProductSummary;
 import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.ProductRatingRepository;
 import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.search.FacetIndex;
+import com.example.ecommerce.search.FacetQuery;
+import com.example.ecommerce.search.FacetResult;
+import com.example.ecommerce.search.ProductSearchIndex;
+import com.example.ecommerce.search.SearchResult;
+import com.example.ecommerce.search.Suggestion;
+import com.example.ecommerce.search.SuggestionIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
+    // Deepest search result a page may reach; ranking keeps every result up to here in memory
+    static final int MAX_SEARCH_WINDOW = 10_000;
+
     @Autowired
     private ProductRepository productRepository;
 
-    public Page<Product> getAllProducts(Pageable pageable) {
-        return productRepository.findAll(pageable);
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
+    @Autowired
+    private FacetIndex facetIndex;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductRatingRepository ratingRepository;
+
+    @Autowired
+    private CategoryTreeCache categoryTree;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public Page<ProductSummary> getAllProducts(Pageable pageable) {
+        return productRepository.findSummaries(pageable);
+    }
+
+    /**
+     * Keyset-paginated listing sorted by "id" or "price", optionally within one
+     * category subtree. Deep pages cost the same as the first one.
+     */
+    public CursorPage<ProductSummary> getProductsByCursor(String cursor, String sort, Long categoryId, int size) {
+        PageRequest limit = PageRequest.of(0, Math.max(1, Math.min(size, 100)));
+        List<Long> categoryIds = categoryId == null ? null : findCategoryNode(categoryId).subtreeIds();
+        Slice<ProductSummary> slice;
+        if ("price".equals(sort)) {
+            KeysetCursor after = KeysetCursor.decode(cursor, sort);
+            if (after == null) {
+                slice = categoryIds == null
+                        ? productRepository.findSummariesOrderByPrice(limit)
+                        : productRepository.findSummariesInCategoriesOrderByPrice(categoryIds, limit);
+            } else {
+                BigDecimal price = after.decimalValue();
+                slice = categoryIds == null
+                        ? productRepository.findSummariesAfterPrice(price, after.id(), limit)
+                        : productRepository.findSummariesInCategoriesAfterPrice(categoryIds, price, after.id(),
+                                limit);
+            }
+        } else {
+            sort = "id";
+            KeysetCursor after = KeysetCursor.decode(cursor, sort);
+            long afterId = after == null ? 0L : after.id();
+            slice = categoryIds == null
+                    ? productRepository.findSummariesAfterId(afterId, limit)
+                    : productRepository.findSummariesInCategoriesAfterId(categoryIds, afterId, limit);
+        }
+
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            ProductSummary last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            nextCursor = KeysetCursor.encode(sort, "price".equals(sort) ? last.price().toPlainString() : null,
+                    last.id());
+        }
+        return new CursorPage<>(slice.getContent(), nextCursor);
     }
 
+    // Served from the near-cache; callers must treat the returned entity as read-only
     public Product getProductById(Long id) {
-        return productRepository.findById(id).orElseThrow(() -> new RuntimeException("Product not found"));
+        Product product = findProductById(id);
+        if (product == null) {
+            throw new RuntimeException("Product not found");
+        }
+        return product;
+    }
+
+    // Like getProductById, but null for a missing product
+    public Product findProductById(Long id) {
+        return productCache.get(id, key -> productRepository.findDetailById(key).orElse(null));
+    }
+
+    // Cache hits first, then a single query for the rest; missing products are left out
+    public Map<Long, Product> findProductsById(Collection<Long> ids) {
+        return productCache.getAll(ids, missing -> productRepository.findDetailsByIdIn(List.copyOf(missing)).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity())));
     }
 
     public Product addProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        searchIndex.index(saved);
+        suggestionIndex.putProduct(saved);
+        facetIndex.putProduct(saved);
+        catalogVersion.bump();
+        return saved;
     }
 
     public Product updateProduct(Long id, Product updatedProduct) {
-        Product existing = getProductById(id);
+        Product existing = productRepository.findById(id).orElseThrow(() -> new RuntimeException("Product not found"));
         existing.setName(updatedProduct.getName());
         existing.setDescription(updatedProduct.getDescription());
         existing.setPrice(updatedProduct.getPrice());
         existing.setStock(updatedProduct.getStock());
         existing.setCategory(updatedProduct.getCategory());
         existing.setImageUrl(updatedProduct.getImageUrl());
-        return productRepository.save(existing);
+        Product saved = productRepository.save(existing);
+        productCache.invalidate(id);
+        searchIndex.index(saved);
+        suggestionIndex.putProduct(saved);
+        facetIndex.putProduct(saved);
+        catalogVersion.bump();
+        return saved;
+    }
+
+    /**
+     * Writes only the columns present in the patch with a single UPDATE, so
+     * concurrent edits to other columns survive. With an expected version the
+     * update is conditional on it; returns the new version when it is known.
+     */
+    public Long patchProduct(Long id, ProductPatch patch, Long expectedVersion) {
+        StringBuilder sql = new StringBuilder("update products set ");
+        List<Object> args = new ArrayList<>();
+        appendColumn(sql, args, "name", patch.getName());
+        appendColumn(sql, args, "description", patch.getDescription());
+        appendColumn(sql, args, "price", patch.getPrice());
+        appendColumn(sql, args, "stock", patch.getStock());
+        appendColumn(sql, args, "image_url", patch.getImageUrl());
+        if (patch.getCategoryId() != null) {
+            findCategoryNode(patch.getCategoryId());
+            appendColumn(sql, args, "category_id", patch.getCategoryId());
+        }
+        if (args.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Patch sets no fields");
+        }
+        if ((patch.getName() != null && patch.getName().isBlank())
+                || (patch.getPrice() != null && patch.getPrice().signum() < 0)
+                || (patch.getStock() != null && patch.getStock() < 0)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid name, price or stock");
+        }
+        sql.append("version = version + 1 where id = ?");
+        args.add(id);
+        if (expectedVersion != null) {
+            sql.append(" and version = ?");
+            args.add(expectedVersion);
+        }
+
+        if (jdbcTemplate.update(sql.toString(), args.toArray()) == 0) {
+            if (!productRepository.existsById(id)) {
+                throw new RuntimeException("Product not found");
+            }
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Product was modified by someone else");
+        }
+
+        productCache.invalidate(id);
+        facetIndex.patchProduct(id, patch.getPrice(), patch.getStock(), patch.getCategoryId());
+        // Text indexes need the whole row; stock and price syncs skip this read
+        if (patch.getName() != null || patch.getDescription() != null || patch.getCategoryId() != null) {
+            productRepository.findDetailById(id).ifPresent(product -> {
+                searchIndex.index(product);
+                suggestionIndex.putProduct(product);
+            });
+        }
+        catalogVersion.bump();
+        return expectedVersion != null ? expectedVersion + 1 : null;
+    }
+
+    private static void appendColumn(StringBuilder sql, List<Object> args, String column, Object value) {
+        if (value != null) {
+            sql.append(column).append(" = ?, ");
+            args.add(value);
+        }
     }
 
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        ratingRepository.deleteById(id);
+        productCache.invalidate(id);
+        searchIndex.remove(id);
+        suggestionIndex.removeProduct(id);
+        facetIndex.removeProduct(id);
+        catalogVersion.bump();
+    }
+
+    /**
+     * Adds products inserted behind the per-product hooks, such as an import
+     * batch, to the search and facet indexes: one query and one index update
+     * each. Suggestions and the catalog version are left to the caller.
+     */
+    public void indexNewProducts(List<Long> ids) {
+        searchIndex.indexDocuments(productRepository.findSearchDocumentsByIdIn(ids));
+        facetIndex.putSources(productRepository.findFacetSourcesByIdIn(ids));
+    }
+
+    public Page<ProductSummary> searchProducts(String keyword, Pageable pageable) {
+        // Until the index has been built, fall back to the LIKE query
+        if (!searchIndex.isReady()) {
+            return productRepository.findSummariesByNameContaining(keyword, pageable);
+        }
+
+        if (pageable.getOffset() + pageable.getPageSize() > MAX_SEARCH_WINDOW) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Search results are limited to the first " + MAX_SEARCH_WINDOW + " matches");
+        }
+        SearchResult result = searchIndex.search(keyword, (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(findAllInOrder(result.productIds()), pageable, result.total());
+    }
+
+    public ProductFacetResponse browseProducts(List<Long> categoryIds, List<Integer> priceBuckets, boolean inStockOnly,
+            int page, int size) {
+        if (page < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page must not be negative");
+        }
+        if (!facetIndex.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Catalog index is still loading");
+        }
+        size = Math.max(1, Math.min(size, 100));
+        // Product ids are ints, so an offset past Integer.MAX_VALUE is past the last match anyway
+        int offset = (int) Math.min((long) page * size, Integer.MAX_VALUE);
+        FacetResult result = facetIndex.query(new FacetQuery(categoryIds, priceBuckets, inStockOnly, offset, size));
+        return new ProductFacetResponse(findAllInOrder(result.productIds()), page, size, result);
+    }
+
+    // Loads summaries by primary key in one query, keeping the order of the given ids
+    private List<ProductSummary> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductSummary> byId = productRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductSummary::id, Function.identity()));
+        List<ProductSummary> products = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ProductSummary product = byId.get(id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return suggestionIndex.suggest(prefix, Math.min(limit, 20));
     }
 
-    public Page<Product> searchProducts(String keyword, Pageable pageable) {
-        return productRepository.findByNameContaining(keyword, pageable);
+    // Products in the category and all of its descendants
+    public Page<ProductSummary> getProductsByCategory(Long categoryId, Pageable pageable) {
+        return productRepository.findSummariesInCategories(findCategoryNode(categoryId).subtreeIds(), pageable);
     }
 
-    public Page<Product> getProductsByCategory(Long categoryId, Pageable pageable) {
-        return productRepository.findByCategoryId(categoryId, pageable);
+    private CategoryTree.Node findCategoryNode(Long categoryId) {
+        if (!categoryTree.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Catalog index is still loading");
+        }
+        CategoryTree.Node node = categoryTree.get().get(categoryId);
+        if (node == null) {
+            throw new RuntimeException("Category not found");
+        }
+        return node;
     }
 }
@@ -0,0 +1,31 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.repository.ProductRatingRepository;
+
+/**
+ * Net change to one product's rating aggregate, accumulated in memory so a
+ * batch of reviews becomes a single upsert.
+ */
+class RatingDelta {
+    private long count;
+    private long sum;
+    private final long[] stars = new long[5];
+
+    void add(int rating) {
+        apply(rating, 1);
+    }
+
+    void remove(int rating) {
+        apply(rating, -1);
+    }
+
+    private void apply(int rating, int sign) {
+        count += sign;
+        sum += (long) sign * rating;
+        stars[rating - 1] += sign;
+    }
+
+    void applyTo(ProductRatingRepository repository, Long productId) {
+        repository.applyDelta(productId, count, sum, stars[0], stars[1], stars[2], stars[3], stars[4]);
+    }
+}
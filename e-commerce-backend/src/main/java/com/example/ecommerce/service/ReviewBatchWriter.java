@@ -0,0 +1,144 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.cache.CatalogVersion;
+import com.example.ecommerce.repository.ProductRatingRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Groups review submissions into batched inserts. A single writer thread takes
+ * whatever has queued up while the previous batch was being written, inserts it
+ * with one JDBC batch and applies one rating upsert per product, all in one
+ * transaction. Each submitter is completed once its batch commits.
+ */
+@Component
+public class ReviewBatchWriter {
+    private static final Logger logger = LoggerFactory.getLogger(ReviewBatchWriter.class);
+
+    private static final String INSERT_SQL =
+            "insert into reviews (user_id, product_id, rating, comment, created_at) values (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductRatingRepository ratingRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Value("${app.reviews.batchSize:200}")
+    private int batchSize;
+
+    @Value("${app.reviews.queueCapacity:10000}")
+    private int queueCapacity;
+
+    private BlockingQueue<PendingReview> queue;
+    private TransactionTemplate transactionTemplate;
+    private Thread worker;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        running = true;
+        worker = new Thread(this::drainLoop, "review-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(5000);
+    }
+
+    public CompletableFuture<Void> submit(Long userId, Long productId, int rating, String comment) {
+        PendingReview pending = new PendingReview(userId, productId, rating, comment, LocalDateTime.now(),
+                new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Review queue is full, retry later");
+        }
+        return pending.done();
+    }
+
+    private void drainLoop() {
+        List<PendingReview> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                // Shutting down: flush whatever is still queued, then exit
+                if (queue.drainTo(batch, batchSize) == 0) {
+                    continue;
+                }
+            }
+            queue.drainTo(batch, batchSize - batch.size());
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<PendingReview> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(batch));
+            catalogVersion.bump();
+            batch.forEach(pending -> pending.done().complete(null));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                logger.error("Could not store review: {}", e.getMessage());
+                batch.get(0).done().completeExceptionally(e);
+                return;
+            }
+            // One bad row (e.g. its product was deleted meanwhile) must not fail the rest
+            for (PendingReview pending : batch) {
+                write(List.of(pending));
+            }
+        }
+    }
+
+    private void insert(List<PendingReview> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, pending) -> {
+            ps.setLong(1, pending.userId());
+            ps.setLong(2, pending.productId());
+            ps.setInt(3, pending.rating());
+            ps.setString(4, pending.comment());
+            ps.setTimestamp(5, Timestamp.valueOf(pending.createdAt()));
+        });
+
+        Map<Long, RatingDelta> deltas = new HashMap<>();
+        for (PendingReview pending : batch) {
+            deltas.computeIfAbsent(pending.productId(), id -> new RatingDelta()).add(pending.rating());
+        }
+        deltas.forEach((productId, delta) -> delta.applyTo(ratingRepository, productId));
+    }
+
+    private record PendingReview(Long userId, Long productId, int rating, String comment, LocalDateTime createdAt,
+            CompletableFuture<Void> done) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.cache.CatalogVersion;
+import com.example.ecommerce.dto.RatingSummary;
+import com.example.ecommerce.dto.ReviewRequest;
+import com.example.ecommerce.dto.ReviewResponse;
+import com.example.ecommerce.entity.ProductRating;
+import com.example.ecommerce.entity.Review;
+import com.example.ecommerce.repository.ProductRatingRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.repository.ReviewRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+
+@Service
+public class ReviewService {
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ProductRatingRepository ratingRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ReviewBatchWriter batchWriter;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    public Page<ReviewResponse> getReviews(Long productId, Pageable pageable) {
+        return reviewRepository.findResponsesByProductId(productId, pageable);
+    }
+
+    public RatingSummary getRating(Long productId) {
+        return ratingRepository.findById(productId)
+                .map(ReviewService::toSummary)
+                .orElseGet(() -> new RatingSummary(productId, 0, null, new long[5]));
+    }
+
+    // Completes once the batch containing this review has committed
+    public CompletableFuture<Void> addReview(Long userId, Long productId, ReviewRequest request) {
+        if (!productRepository.existsById(productId)) {
+            throw new RuntimeException("Product not found");
+        }
+        return batchWriter.submit(userId, productId, request.getRating(), request.getComment());
+    }
+
+    @Transactional
+    public void deleteReview(Long userId, boolean admin, Long reviewId) {
+        Review review = reviewRepository.findById(reviewId)
+                .orElseThrow(() -> new RuntimeException("Review not found"));
+        if (!admin && !review.getUser().getId().equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not your review");
+        }
+
+        reviewRepository.delete(review);
+        RatingDelta delta = new RatingDelta();
+        delta.remove(review.getRating());
+        delta.applyTo(ratingRepository, review.getProduct().getId());
+        catalogVersion.bump();
+    }
+
+    private static RatingSummary toSummary(ProductRating rating) {
+        long count = rating.getReviewCount();
+        Double average = count > 0 ? (double) rating.getRatingSum() / count : null;
+        long[] histogram = { rating.getStar1(), rating.getStar2(), rating.getStar3(), rating.getStar4(),
+                rating.getStar5() };
+        return new RatingSummary(rating.getProductId(), count, average, histogram);
+    }
+}
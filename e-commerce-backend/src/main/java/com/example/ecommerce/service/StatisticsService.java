@@ -0,0 +1,54 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.StatisticsView;
+import com.example.ecommerce.repository.OrderRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+public class StatisticsService {
+    static final int LOW_STOCK_THRESHOLD = 10;
+    private static final int LOW_STOCK_LISTED = 50;
+    private static final int RECENT_ORDERS = 10;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    public StatisticsView getStatistics() {
+        Map<String, Long> ordersByStatus = new LinkedHashMap<>();
+        long totalOrders = 0;
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        for (Object[] row : orderRepository.summarizeByStatus()) {
+            String status = (String) row[0];
+            long count = ((Number) row[1]).longValue();
+            totalOrders += count;
+            if (status != null) {
+                ordersByStatus.put(status, count);
+            }
+            // Cancelled orders never turn into revenue
+            if (!"CANCELLED".equals(status) && row[2] != null) {
+                totalRevenue = totalRevenue.add((BigDecimal) row[2]);
+            }
+        }
+
+        return new StatisticsView(
+                productRepository.count(),
+                productRepository.countByStockLessThan(LOW_STOCK_THRESHOLD),
+                productRepository.countByStock(0),
+                productRepository.findSummariesWithStockBelow(LOW_STOCK_THRESHOLD, PageRequest.of(0, LOW_STOCK_LISTED)),
+                totalOrders,
+                ordersByStatus,
+                totalRevenue,
+                orderRepository.findByIdLessThanOrderByIdDesc(Long.MAX_VALUE, PageRequest.of(0, RECENT_ORDERS))
+                        .getContent());
+    }
+}
@@ -17,18 +17,16 @@ public class UserService {
     @Autowired
     private AddressRepository addressRepository;
 
-    public User getUserByEmail(String email) {
-        return userRepository.findByEmail(email).orElseThrow(() -> new RuntimeException("User not found"));
+    public User getUserById(Long userId) {
+        return userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
     }
 
-    public Address addAddress(String email, Address address) {
-        User user = getUserByEmail(email);
-        address.setUser(user);
+    public Address addAddress(Long userId, Address address) {
+        address.setUser(userRepository.getReferenceById(userId));
         return addressRepository.save(address);
     }
 
-    public List<Address> getUserAddresses(String email) {
-        User user = getUserByEmail(email);
-        return user.getAddresses();
+    public List<Address> getUserAddresses(Long userId) {
+        return addressRepository.findByUserId(userId);
     }
 }
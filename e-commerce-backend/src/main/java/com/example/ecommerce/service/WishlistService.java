@@ -1,7 +1,6 @@
 package com.example.ecommerce.service;
 
 import com.example.ecommerce.entity.Product;
-import com.example.ecommerce.entity.User;
 import com.example.ecommerce.entity.Wishlist;
 import com.example.ecommerce.entity.WishlistItem;
 import com.example.ecommerce.repository.ProductRepository;
@@ -21,17 +20,17 @@ public class WishlistService {
     @Autowired
     private ProductRepository productRepository;
 
-    public Wishlist getWishlistByUserEmail(String email) {
-        User user = userRepository.findByEmail(email).orElseThrow(() -> new RuntimeException("User not found"));
-        return wishlistRepository.findByUserId(user.getId()).orElseGet(() -> {
+    public Wishlist getWishlistByUserId(Long userId) {
+        return wishlistRepository.findByUserId(userId).orElseGet(() -> {
             Wishlist wishlist = new Wishlist();
-            wishlist.setUser(user);
+            wishlist.setUser(userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found")));
             return wishlistRepository.save(wishlist);
         });
     }
 
-    public Wishlist addToWishlist(String email, Long productId) {
-        Wishlist wishlist = getWishlistByUserEmail(email);
+    public Wishlist addToWishlist(Long userId, Long productId) {
+        Wishlist wishlist = getWishlistByUserId(userId);
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
@@ -46,8 +45,8 @@ public class WishlistService {
         return wishlist;
     }
 
-    public Wishlist removeFromWishlist(String email, Long itemId) {
-        Wishlist wishlist = getWishlistByUserEmail(email);
+    public Wishlist removeFromWishlist(Long userId, Long itemId) {
+        Wishlist wishlist = getWishlistByUserId(userId);
         wishlist.getItems().removeIf(item -> item.getId().equals(itemId));
         return wishlistRepository.save(wishlist);
     }
@@ -0,0 +1,36 @@
+package com.example.ecommerce.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategoryTreeTest {
+    // Electronics > (Audio > Headphones, Phones); Garden
+    private final CategoryTree tree = CategoryTree.build(new ArrayList<>(List.of(
+            new Object[] { 1L, null, "Electronics" },
+            new Object[] { 2L, 1L, "Phones" },
+            new Object[] { 3L, 1L, "Audio" },
+            new Object[] { 4L, 3L, "Headphones" },
+            new Object[] { 5L, null, "Garden" })));
+
+    @Test
+    void subtreeListsTheCategoryAndAllDescendantsInPreOrder() {
+        assertThat(tree.get(1L).subtreeIds()).containsExactly(1L, 3L, 4L, 2L);
+        assertThat(tree.get(3L).subtreeIds()).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void leafSubtreeIsJustTheCategory() {
+        assertThat(tree.get(4L).subtreeIds()).containsExactly(4L);
+        assertThat(tree.get(5L).subtreeIds()).containsExactly(5L);
+    }
+
+    @Test
+    void sizeCountsEveryCategory() {
+        assertThat(tree.size()).isEqualTo(5);
+        assertThat(CategoryTree.EMPTY.size()).isZero();
+    }
+}
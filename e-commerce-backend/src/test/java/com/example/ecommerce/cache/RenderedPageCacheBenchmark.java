@@ -0,0 +1,110 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.entity.Category;
+import com.example.ecommerce.entity.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cost of answering a catalog listing page: a RenderedPageCache hit, plain
+ * and gzipped, against serializing the {@code Page<Product>} with Jackson as
+ * every request did before, with and without the gzip the container would
+ * then apply. The database read a miss also pays is left out.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderedPageCacheBenchmark {
+    @Param({ "20", "50" })
+    int pageSize;
+
+    private ObjectMapper objectMapper;
+    private RenderedPageCache cache;
+    private Pageable pageable;
+    private Page<Product> page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        Category category = new Category();
+        category.setId(7L);
+        category.setName("Kitchen");
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= pageSize; id++) {
+            products.add(new Product(id, "Stainless steel pan " + id,
+                    "Tri-ply stainless steel frying pan, oven safe to 260 degrees, induction ready. Model " + id,
+                    BigDecimal.valueOf(1999 + id * 37, 2), (int) (id % 40), "/images/products/" + id + ".jpg",
+                    category, LocalDateTime.of(2024, 3, 1, 12, 0).plusMinutes(id), null));
+        }
+        pageable = PageRequest.of(0, pageSize);
+        page = new PageImpl<>(products, pageable, 10_000);
+
+        cache = new RenderedPageCache();
+        ReflectionTestUtils.setField(cache, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(cache, "catalogVersion", new CatalogVersion());
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "maxPages", 3);
+        ReflectionTestUtils.setField(cache, "maxPageSize", 50);
+        ReflectionTestUtils.setField(cache, "maxBytes", 32L << 20);
+        cache.init();
+        cache.render("products", pageable, "gzip", () -> page);
+    }
+
+    @Benchmark
+    public Object cachedIdentity() {
+        return cache.render("products", pageable, null, () -> page).getBody();
+    }
+
+    @Benchmark
+    public Object cachedGzip() {
+        return cache.render("products", pageable, "gzip", () -> page).getBody();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeAndGzip() throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(page);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.ecommerce.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RenderedPageCacheTest {
+    private RenderedPageCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RenderedPageCache();
+        ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(cache, "catalogVersion", new CatalogVersion());
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "maxPages", 3);
+        ReflectionTestUtils.setField(cache, "maxPageSize", 50);
+        ReflectionTestUtils.setField(cache, "maxBytes", 1L << 20);
+        cache.init();
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "gzip                    | true",
+            "deflate, gzip;q=0.5     | true",
+            "GZIP                    | true",
+            "x-gzip                  | true",
+            "gzip;q=0                | false",
+            "gzip; q=0.000, deflate  | false",
+            "br, deflate             | false",
+            "*                       | true",
+            "*;q=0                   | false",
+            "gzip;q=0, *             | false",
+            "gzip, *;q=0             | true",
+            "identity                | false",
+            "gzip;q=oops             | false",
+    })
+    void gzipFollowsQValues(String header, boolean accepted) {
+        assertThat(RenderedPageCache.acceptsGzip(header)).isEqualTo(accepted);
+    }
+
+    @Test
+    void noHeaderMeansIdentity() {
+        assertThat(RenderedPageCache.acceptsGzip(null)).isFalse();
+    }
+
+    @Test
+    void refusedGzipGetsThePlainBody() {
+        ResponseEntity<?> response = cache.render("products", PageRequest.of(0, 10), "gzip;q=0",
+                () -> List.of(Map.of("id", 1)));
+
+        assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(new String((byte[]) response.getBody())).isEqualTo("[{\"id\":1}]");
+    }
+
+    @Test
+    void acceptedGzipGetsTheCompressedBody() {
+        ResponseEntity<?> response = cache.render("products", PageRequest.of(0, 10), "br, gzip;q=0.8",
+                () -> List.of(Map.of("id", 1)));
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        byte[] body = (byte[]) response.getBody();
+        assertThat(body[0]).isEqualTo((byte) 0x1f);
+        assertThat(body[1]).isEqualTo((byte) 0x8b);
+    }
+}
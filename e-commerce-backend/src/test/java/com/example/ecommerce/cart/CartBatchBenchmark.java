@@ -0,0 +1,95 @@
+package com.example.ecommerce.cart;
+
+import com.example.ecommerce.cache.CatalogVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Changing N lines of a cart with N single-line calls, as the per-item
+ * endpoints do, against one {@link CartStore#apply} call, as the batch
+ * endpoint does. Only the store is measured; per-item requests additionally
+ * pay N HTTP round trips and N product lookups instead of one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartBatchBenchmark {
+    private static final Long USER = 1L;
+
+    @Param({ "1", "10", "50" })
+    int lines;
+
+    private CartStore store;
+    private BigDecimal price;
+    private int round;
+
+    @Setup
+    public void setUp() throws Exception {
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        price = new BigDecimal("19.99");
+        for (long id = 1; id <= lines; id++) {
+            prices.put(id, price);
+        }
+        store = CartFixtures.store(new FakeCartWriter(), CartFixtures.pricing(prices, new CatalogVersion()),
+                Files.createTempDirectory("cart-bench"));
+        List<CartEdit> initial = new ArrayList<>(lines);
+        for (long id = 1; id <= lines; id++) {
+            initial.add(CartEdit.set(id, 1, price));
+        }
+        store.apply(USER, initial);
+    }
+
+    // Keeps the log from growing over a whole run
+    @TearDown(Level.Iteration)
+    public void flush() {
+        CartFixtures.flush(store);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        store.shutdown();
+    }
+
+    @Benchmark
+    public CartSnapshot perItem() {
+        int quantity = (round++ & 1) + 1;
+        CartSnapshot cart = null;
+        for (long id = 1; id <= lines; id++) {
+            cart = store.setQuantity(USER, id, quantity);
+        }
+        return cart;
+    }
+
+    @Benchmark
+    public CartSnapshot batch() {
+        int quantity = (round++ & 1) + 1;
+        List<CartEdit> edits = new ArrayList<>(lines);
+        for (long id = 1; id <= lines; id++) {
+            edits.add(CartEdit.set(id, quantity, price));
+        }
+        return store.apply(USER, edits);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.ecommerce.cart;
+
+import com.example.ecommerce.cache.CatalogVersion;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.service.ProductService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+final class CartFixtures {
+    private CartFixtures() {
+    }
+
+    /**
+     * Pricing backed by a stub catalog in which every product listed in prices
+     * exists at that price; the map may be changed between calls.
+     */
+    static CartPricing pricing(Map<Long, BigDecimal> prices, CatalogVersion catalogVersion) {
+        ProductService productService = new ProductService() {
+            @Override
+            public Map<Long, Product> findProductsById(Collection<Long> ids) {
+                Map<Long, Product> products = new HashMap<>();
+                for (Long id : ids) {
+                    BigDecimal price = prices.get(id);
+                    if (price != null) {
+                        Product product = new Product();
+                        product.setId(id);
+                        product.setPrice(price);
+                        products.put(id, product);
+                    }
+                }
+                return products;
+            }
+        };
+        CartPricing pricing = new CartPricing();
+        ReflectionTestUtils.setField(pricing, "productService", productService);
+        ReflectionTestUtils.setField(pricing, "catalogVersion", catalogVersion);
+        return pricing;
+    }
+
+    // The background flusher never fires on its own; tests flush explicitly
+    static CartStore store(CartWriter writer, CartPricing pricing, Path logDir) throws Exception {
+        CartStore store = new CartStore();
+        ReflectionTestUtils.setField(store, "writer", writer);
+        ReflectionTestUtils.setField(store, "pricing", pricing);
+        ReflectionTestUtils.setField(store, "logDir", logDir.toString());
+        ReflectionTestUtils.setField(store, "flushIntervalMs", Long.MAX_VALUE);
+        ReflectionTestUtils.setField(store, "idleSeconds", 3600L);
+        store.init();
+        return store;
+    }
+
+    static void flush(CartStore store) {
+        ReflectionTestUtils.invokeMethod(store, "flush");
+    }
+
+    static List<Path> segments(Path logDir) throws Exception {
+        try (Stream<Path> files = Files.list(logDir)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+
+    static long recordCount(Path logDir) throws Exception {
+        long count = 0;
+        for (Path segment : segments(logDir)) {
+            count += Files.readAllLines(segment).stream().filter(line -> !line.isEmpty()).count();
+        }
+        return count;
+    }
+}
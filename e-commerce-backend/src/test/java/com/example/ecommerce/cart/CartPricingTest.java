@@ -0,0 +1,124 @@
+package com.example.ecommerce.cart;
+
+import com.example.ecommerce.cache.CatalogVersion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CartPricingTest {
+    private static final Long USER = 3L;
+
+    @TempDir
+    Path logDir;
+
+    private final Map<Long, BigDecimal> prices = new HashMap<>();
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+    private CartPricing pricing;
+    private CartStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        prices.put(1L, new BigDecimal("10.25"));
+        prices.put(2L, new BigDecimal("3.10"));
+        prices.put(3L, new BigDecimal("0.99"));
+        pricing = CartFixtures.pricing(prices, catalogVersion);
+        store = CartFixtures.store(new FakeCartWriter(), pricing, logDir);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        store.shutdown();
+    }
+
+    @Test
+    void toCentsRoundsHalfUpToWholeCents() {
+        assertThat(CartPricing.toCents(new BigDecimal("10.25"))).isEqualTo(1025);
+        assertThat(CartPricing.toCents(new BigDecimal("10.005"))).isEqualTo(1001);
+        assertThat(CartPricing.toCents(new BigDecimal("10.0049"))).isEqualTo(1000);
+        assertThat(CartPricing.toCents(new BigDecimal("0.1"))).isEqualTo(10);
+        assertThat(CartPricing.toCents(new BigDecimal("7"))).isEqualTo(700);
+        assertThat(CartPricing.toCents(new BigDecimal("-1.005"))).isEqualTo(-101);
+        assertThatThrownBy(() -> CartPricing.toCents(new BigDecimal("1e20")))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void toAmountHasTwoDecimalPlaces() {
+        assertThat(CartPricing.toAmount(1025)).isEqualTo(new BigDecimal("10.25"));
+        assertThat(CartPricing.toAmount(5)).isEqualTo(new BigDecimal("0.05"));
+        assertThat(CartPricing.toAmount(0)).isEqualTo(new BigDecimal("0.00"));
+        assertThat(CartPricing.toAmount(CartPricing.toCents(new BigDecimal("19.99")))).isEqualTo("19.99");
+    }
+
+    @Test
+    void totalsFollowEveryChange() {
+        assertTotals(store.add(USER, 1L, 2, prices.get(1L)), 2050, 2);
+        assertTotals(store.setQuantity(USER, 1L, 5), 5125, 5);
+        assertTotals(store.add(USER, 2L, 1, prices.get(2L)), 5435, 6);
+        assertTotals(store.add(USER, 2L, 2, prices.get(2L)), 6055, 8);
+        assertTotals(store.remove(USER, 1L), 930, 3);
+        assertTotals(store.apply(USER, List.of(CartEdit.add(3L, 10, prices.get(3L)), CartEdit.set(2L, 1, null))),
+                1300, 11);
+        store.clear(USER);
+        assertTotals(store.get(USER), 0, 0);
+    }
+
+    @Test
+    void incrementalTotalsMatchAFullRepricing() {
+        store.add(USER, 1L, 3, prices.get(1L));
+        store.add(USER, 2L, 7, prices.get(2L));
+        store.setQuantity(USER, 1L, 1);
+        store.add(USER, 3L, 4, prices.get(3L));
+        CartSnapshot cart = store.remove(USER, 2L);
+
+        CartSnapshot repriced = pricing.price(cart.lines());
+        assertThat(cart.subtotalCents()).isEqualTo(repriced.subtotalCents()).isEqualTo(1025 + 4 * 99);
+        assertThat(cart.itemCount()).isEqualTo(repriced.itemCount());
+        assertThat(cart.unitCents()).isEqualTo(repriced.unitCents());
+    }
+
+    @Test
+    void cartIsRepricedOnceTheCatalogVersionMoves() {
+        store.add(USER, 1L, 2, prices.get(1L));
+        // Added at the price the shopper saw, which is already outdated
+        store.add(USER, 2L, 1, new BigDecimal("2.50"));
+        assertTotals(store.get(USER), 2300, 3);
+
+        prices.put(1L, new BigDecimal("11.00"));
+        assertTotals(store.get(USER), 2300, 3);
+
+        catalogVersion.bump();
+        CartSnapshot cart = store.get(USER);
+        assertTotals(cart, 2510, 3);
+        assertThat(cart.unitCents()).containsEntry(1L, 1100L).containsEntry(2L, 310L);
+    }
+
+    @Test
+    void deletedProductsDropOutOfTheTotalsAfterRepricing() {
+        store.add(USER, 1L, 2, prices.get(1L));
+        store.add(USER, 3L, 1, prices.get(3L));
+
+        prices.remove(3L);
+        catalogVersion.bump();
+        CartSnapshot cart = store.get(USER);
+
+        assertTotals(cart, 2050, 2);
+        assertThat(cart.lines()).hasSize(2);
+        assertThat(cart.unitCents()).doesNotContainKey(3L);
+    }
+
+    private static void assertTotals(CartSnapshot cart, long subtotalCents, int itemCount) {
+        assertThat(cart.subtotalCents()).isEqualTo(subtotalCents);
+        assertThat(cart.itemCount()).isEqualTo(itemCount);
+    }
+}
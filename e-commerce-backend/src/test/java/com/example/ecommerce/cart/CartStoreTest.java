@@ -0,0 +1,237 @@
+package com.example.ecommerce.cart;
+
+import com.example.ecommerce.cache.CatalogVersion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+class CartStoreTest {
+    private static final Long USER = 7L;
+
+    @TempDir
+    Path logDir;
+
+    private final Map<Long, BigDecimal> prices = new HashMap<>();
+    private final FakeCartWriter writer = new FakeCartWriter();
+    private final List<CartStore> stores = new ArrayList<>();
+    private CartPricing pricing;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= 20; id++) {
+            prices.put(id, new BigDecimal(id + ".50"));
+        }
+        pricing = CartFixtures.pricing(prices, new CatalogVersion());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (CartStore store : stores) {
+            store.shutdown();
+        }
+    }
+
+    private CartStore open(CartWriter cartWriter) throws Exception {
+        CartStore store = CartFixtures.store(cartWriter, pricing, logDir);
+        stores.add(store);
+        return store;
+    }
+
+    @Test
+    void flushWritesChangedCartsInOneBatchAndDropsTheirSegments() throws Exception {
+        CartStore store = open(writer);
+        store.add(USER, 1L, 2, prices.get(1L));
+        store.apply(USER, List.of(CartEdit.add(2L, 1, prices.get(2L)), CartEdit.set(1L, 5, null)));
+        store.add(8L, 3L, 1, prices.get(3L));
+        assertThat(writer.writes).isZero();
+
+        CartFixtures.flush(store);
+
+        assertThat(writer.writes).isEqualTo(1);
+        assertThat(writer.quantities(USER)).containsExactly(entry(1L, 5), entry(2L, 1));
+        assertThat(writer.quantities(8L)).containsExactly(entry(3L, 1));
+        // Only the fresh, empty active segment is left
+        assertThat(CartFixtures.segments(logDir)).hasSize(1);
+        assertThat(CartFixtures.recordCount(logDir)).isZero();
+
+        CartFixtures.flush(store);
+        assertThat(writer.writes).isEqualTo(1);
+    }
+
+    @Test
+    void batchWithAFailingEditChangesNothing() throws Exception {
+        CartStore store = open(writer);
+        store.add(USER, 1L, 2, prices.get(1L));
+
+        // Setting a line that is not in the cart needs a price to create it
+        assertThatThrownBy(() -> store.apply(USER, List.of(CartEdit.add(2L, 1, prices.get(2L)),
+                CartEdit.set(1L, 4, null), CartEdit.set(3L, 1, null))))
+                .hasMessage("Item not found");
+
+        assertThat(quantities(store.get(USER))).containsExactly(entry(1L, 2));
+        assertThat(CartFixtures.recordCount(logDir)).isEqualTo(1);
+        CartFixtures.flush(store);
+        assertThat(writer.quantities(USER)).containsExactly(entry(1L, 2));
+    }
+
+    @Test
+    void conflictingWriteIsRebasedOnTheStoredCartAndRetried() throws Exception {
+        writer.store(USER, new CartLine(10L, 1, prices.get(10L)));
+        CartStore store = open(writer);
+        store.add(USER, 10L, 2, prices.get(10L));
+        store.setQuantity(USER, 11L, 0);
+        store.add(USER, 11L, 3, prices.get(11L));
+
+        // Another instance writes the same cart in the meantime
+        writer.store(USER, new CartLine(10L, 5, prices.get(10L)), new CartLine(12L, 1, prices.get(12L)));
+        CartFixtures.flush(store);
+
+        assertThat(writer.quantities(USER)).containsExactly(entry(10L, 5), entry(12L, 1));
+        // Rebased: the increase lands on the stored quantity and the stored line is kept
+        assertThat(quantities(store.get(USER))).containsExactly(entry(10L, 7), entry(12L, 1), entry(11L, 3));
+        assertThat(CartFixtures.recordCount(logDir)).isPositive();
+
+        CartFixtures.flush(store);
+
+        assertThat(writer.quantities(USER)).containsExactly(entry(10L, 7), entry(12L, 1), entry(11L, 3));
+        assertThat(CartFixtures.recordCount(logDir)).isZero();
+    }
+
+    @Test
+    void cartThatKeepsConflictingIsNeverForced() throws Exception {
+        writer.store(USER, new CartLine(1L, 1, prices.get(1L)));
+        CartStore store = open(writer);
+        store.setQuantity(USER, 1L, 4);
+        writer.contended.add(USER);
+
+        for (int i = 0; i < 5; i++) {
+            CartFixtures.flush(store);
+            assertThat(writer.quantities(USER)).containsExactly(entry(1L, 1));
+        }
+        // Another instance gets a write in while this one keeps losing the race
+        writer.store(USER, new CartLine(2L, 3, prices.get(2L)));
+        CartFixtures.flush(store);
+        assertThat(CartFixtures.recordCount(logDir)).isPositive();
+
+        writer.contended.clear();
+        CartFixtures.flush(store);
+
+        assertThat(writer.writes).isEqualTo(7);
+        assertThat(writer.quantities(USER)).containsExactly(entry(1L, 4), entry(2L, 3));
+        assertThat(quantities(store.get(USER))).containsExactly(entry(1L, 4), entry(2L, 3));
+        assertThat(CartFixtures.recordCount(logDir)).isZero();
+    }
+
+    @Test
+    void segmentsAreKeptWhileAnyCartIsStillDirty() throws Exception {
+        writer.store(USER, new CartLine(1L, 1, prices.get(1L)));
+        CartStore store = open(writer);
+        store.add(USER, 1L, 1, prices.get(1L));
+        store.add(8L, 2L, 1, prices.get(2L));
+
+        writer.store(USER, new CartLine(3L, 1, prices.get(3L)));
+        CartFixtures.flush(store);
+
+        // The other cart was written, but the sealed segment also holds the conflicted one
+        assertThat(writer.quantities(8L)).containsExactly(entry(2L, 1));
+        assertThat(CartFixtures.segments(logDir)).hasSize(2);
+
+        store.add(8L, 2L, 1, prices.get(2L));
+        CartFixtures.flush(store);
+
+        assertThat(writer.quantities(USER)).containsExactly(entry(1L, 2), entry(3L, 1));
+        assertThat(writer.quantities(8L)).containsExactly(entry(2L, 2));
+        assertThat(CartFixtures.segments(logDir)).hasSize(1);
+        assertThat(CartFixtures.recordCount(logDir)).isZero();
+    }
+
+    @Test
+    void failedWriteKeepsSegmentsAndRetriesOnTheNextFlush() throws Exception {
+        CartStore store = open(writer);
+        store.add(USER, 1L, 2, prices.get(1L));
+        writer.failing = true;
+
+        CartFixtures.flush(store);
+        assertThat(writer.quantities(USER)).isEmpty();
+        assertThat(CartFixtures.recordCount(logDir)).isEqualTo(1);
+
+        writer.failing = false;
+        CartFixtures.flush(store);
+        assertThat(writer.quantities(USER)).containsExactly(entry(1L, 2));
+        assertThat(CartFixtures.recordCount(logDir)).isZero();
+    }
+
+    @Test
+    void recoveryReplaysSegmentsLeftByACrashAndSkipsTornRecords() throws Exception {
+        CartStore crashed = CartFixtures.store(writer, pricing, logDir);
+        crashed.add(8L, 4L, 1, prices.get(4L));
+        CartFixtures.flush(crashed);
+        assertThat(writer.quantities(8L)).containsExactly(entry(4L, 1));
+        crashed.add(USER, 1L, 2, prices.get(1L));
+        crashed.add(USER, 2L, 1, prices.get(2L));
+        crashed.clear(USER);
+        crashed.add(USER, 3L, 4, prices.get(3L));
+        crashed.setQuantity(USER, 3L, 6);
+        crashed.add(8L, 5L, 2, prices.get(5L));
+        crashed.remove(8L, 4L);
+        // The process dies mid-append: the last record has no end marker
+        Path active = CartFixtures.segments(logDir).get(CartFixtures.segments(logDir).size() - 1);
+        Files.writeString(active, "S 8 6 9 6.50", StandardOpenOption.APPEND);
+        assertThat(writer.quantities(USER)).isEmpty();
+
+        FakeCartWriter restarted = new FakeCartWriter();
+        restarted.lines.putAll(writer.lines);
+        restarted.versions.putAll(writer.versions);
+        CartStore store = open(restarted);
+
+        assertThat(restarted.writes).isEqualTo(1);
+        assertThat(restarted.quantities(USER)).containsExactly(entry(3L, 6));
+        assertThat(restarted.quantities(8L)).containsExactly(entry(5L, 2));
+        assertThat(CartFixtures.recordCount(logDir)).isZero();
+        assertThat(quantities(store.get(USER))).containsExactly(entry(3L, 6));
+    }
+
+    @Test
+    void replayingChangesThatWereAlreadyWrittenIsHarmless() throws Exception {
+        CartStore crashed = CartFixtures.store(writer, pricing, logDir);
+        crashed.add(USER, 1L, 2, prices.get(1L));
+        crashed.add(USER, 1L, 3, prices.get(1L));
+        // Written, but the crash came before the segment was deleted
+        List<Path> sealed = new ArrayList<>();
+        for (Path segment : CartFixtures.segments(logDir)) {
+            Path copy = segment.resolveSibling(segment.getFileName() + ".keep");
+            Files.copy(segment, copy);
+            sealed.add(copy);
+        }
+        CartFixtures.flush(crashed);
+        assertThat(writer.quantities(USER)).containsExactly(entry(1L, 5));
+        for (Path copy : sealed) {
+            Files.move(copy, copy.resolveSibling(copy.getFileName().toString().replace(".keep", "")));
+        }
+
+        open(writer);
+
+        assertThat(writer.quantities(USER)).containsExactly(entry(1L, 5));
+    }
+
+    private static Map<Long, Integer> quantities(CartSnapshot cart) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        cart.lines().forEach(line -> quantities.put(line.productId(), line.quantity()));
+        return quantities;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.ecommerce.cart;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one cart change followed by reading the subtotal: summing every
+ * line in BigDecimal as the cart endpoints used to, summing every line in
+ * long cents, and the cached totals CartState keeps, which only swap the
+ * changed line's contribution.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartTotalsBenchmark {
+    @Param({ "100" })
+    int lines;
+
+    private final Map<Long, CartLine> cart = new LinkedHashMap<>();
+    private final Map<Long, Long> unitCents = new LinkedHashMap<>();
+    private CartState state;
+    private int round;
+
+    @Setup
+    public void setUp() {
+        state = new CartState(1L, 0);
+        for (long id = 1; id <= lines; id++) {
+            BigDecimal price = BigDecimal.valueOf(id * 137 % 10000, 2);
+            CartLine line = new CartLine(id, (int) (id % 5) + 1, price);
+            cart.put(id, line);
+            unitCents.put(id, CartPricing.toCents(price));
+            state.lines.put(id, line);
+        }
+        state.reprice(0, unitCents);
+    }
+
+    private CartLine nextChange() {
+        long productId = (round % lines) + 1;
+        CartLine line = cart.get(productId);
+        CartLine changed = new CartLine(productId, (round++ & 1) + 1, line.price());
+        cart.put(productId, changed);
+        return changed;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalSum() {
+        nextChange();
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (CartLine line : cart.values()) {
+            subtotal = subtotal.add(line.price().multiply(BigDecimal.valueOf(line.quantity())));
+        }
+        return subtotal;
+    }
+
+    @Benchmark
+    public long centsSum() {
+        nextChange();
+        long subtotal = 0;
+        for (CartLine line : cart.values()) {
+            subtotal = Math.addExact(subtotal, Math.multiplyExact(unitCents.get(line.productId()),
+                    (long) line.quantity()));
+        }
+        return subtotal;
+    }
+
+    @Benchmark
+    public long cachedCents() {
+        state.put(nextChange(), null);
+        // Keeps the pending map from growing as it would between flushes
+        state.pending.clear();
+        return state.subtotalCents;
+    }
+}
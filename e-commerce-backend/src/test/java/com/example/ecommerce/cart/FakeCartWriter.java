@@ -0,0 +1,79 @@
+package com.example.ecommerce.cart;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory stand-in for the cart tables with the same semantics as
+ * {@link CartWriter}: a change set is skipped when the stored row moved past
+ * the version it was made against, unless it is forced or the row is new.
+ */
+class FakeCartWriter extends CartWriter {
+    final Map<Long, Map<Long, CartLine>> lines = new HashMap<>();
+    final Map<Long, Long> versions = new HashMap<>();
+    int writes;
+    boolean failing;
+    // Bumps the stored version of these users before every write, as a concurrent writer would
+    final List<Long> contended = new ArrayList<>();
+
+    // Stores a cart as if another instance had written it
+    synchronized void store(Long userId, CartLine... stored) {
+        Map<Long, CartLine> cart = lines.computeIfAbsent(userId, id -> new LinkedHashMap<>());
+        for (CartLine line : stored) {
+            cart.put(line.productId(), line);
+        }
+        versions.merge(userId, 1L, Long::sum);
+    }
+
+    synchronized Map<Long, Integer> quantities(Long userId) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        lines.getOrDefault(userId, Map.of()).forEach((productId, line) -> quantities.put(productId, line.quantity()));
+        return quantities;
+    }
+
+    @Override
+    synchronized CartState load(Long userId) {
+        CartState state = new CartState(lines.containsKey(userId) ? userId : null, versions.getOrDefault(userId, 0L));
+        state.lines.putAll(lines.getOrDefault(userId, Map.of()));
+        return state;
+    }
+
+    @Override
+    synchronized Map<Long, Written> write(List<CartChanges> changes) {
+        writes++;
+        if (failing) {
+            throw new IllegalStateException("database unavailable");
+        }
+        contended.forEach(userId -> versions.merge(userId, 1L, Long::sum));
+        Map<Long, Written> written = new HashMap<>();
+        for (CartChanges cart : changes) {
+            long version = versions.getOrDefault(cart.userId(), 0L);
+            if (cart.cartId() != null && !cart.force() && cart.version() != version) {
+                continue;
+            }
+            Map<Long, CartLine> stored = lines.computeIfAbsent(cart.userId(), id -> new LinkedHashMap<>());
+            if (cart.clear()) {
+                stored.clear();
+            }
+            for (CartChanges.LineChange change : cart.lines()) {
+                CartLine line = change.line();
+                CartLine current = stored.get(line.productId());
+                if (change.added() != null) {
+                    stored.put(line.productId(), current == null ? new CartLine(line.productId(), change.added(),
+                            line.price()) : new CartLine(line.productId(), current.quantity() + change.added(),
+                            current.price()));
+                } else if (line.quantity() > 0) {
+                    stored.put(line.productId(), line);
+                } else {
+                    stored.remove(line.productId());
+                }
+            }
+            versions.put(cart.userId(), version + 1);
+            written.put(cart.userId(), new Written(cart.userId(), version + 1));
+        }
+        return written;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.ecommerce.cart;
+
+import com.example.ecommerce.cache.CatalogVersion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GuestCartStoreTest {
+    private GuestCartStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new GuestCartStore();
+        ReflectionTestUtils.setField(store, "pricing",
+                CartFixtures.pricing(Map.of(1L, new BigDecimal("2.50"), 2L, new BigDecimal("4.00")),
+                        new CatalogVersion()));
+        ReflectionTestUtils.setField(store, "maxCarts", 10);
+        ReflectionTestUtils.setField(store, "maxLines", 50);
+        ReflectionTestUtils.setField(store, "ttlSeconds", 3600L);
+        ReflectionTestUtils.setField(store, "tickMs", 1000L);
+        store.init();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        store.shutdown();
+    }
+
+    @Test
+    void takenLinesCanBeRestoredUnderTheSameToken() {
+        String token = store.apply(null, List.of(
+                CartEdit.add(1L, 2, new BigDecimal("2.50")),
+                CartEdit.add(2L, 1, new BigDecimal("4.00")))).token();
+
+        List<CartLine> lines = store.take(token);
+        assertThat(store.get(token).itemCount()).isZero();
+
+        store.restore(token, lines);
+
+        CartSnapshot restored = store.get(token);
+        assertThat(restored.lines()).containsExactlyElementsOf(lines);
+        assertThat(restored.subtotalCents()).isEqualTo(900);
+        assertThat(store.take(token)).containsExactlyElementsOf(lines);
+    }
+
+    @Test
+    void restoreNeverReplacesALiveCart() {
+        String token = store.apply(null, List.of(CartEdit.add(1L, 1, new BigDecimal("2.50")))).token();
+
+        store.restore(token, List.of(new CartLine(2L, 5, new BigDecimal("4.00"))));
+
+        assertThat(store.get(token).lines()).containsExactly(new CartLine(1L, 1, new BigDecimal("2.50")));
+    }
+}
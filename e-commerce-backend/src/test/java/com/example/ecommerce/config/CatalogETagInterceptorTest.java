@@ -0,0 +1,63 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.cache.CatalogVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogETagInterceptorTest {
+    private final CatalogETagInterceptor interceptor = new CatalogETagInterceptor();
+    private HandlerMethod handler;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        ReflectionTestUtils.setField(interceptor, "catalogVersion", new CatalogVersion());
+        handler = new HandlerMethod(new Listing(), Listing.class.getMethod("list"));
+    }
+
+    @Test
+    void gzipAndIdentityResponsesGetDifferentTags() {
+        MockHttpServletResponse plain = get(null, null);
+        MockHttpServletResponse gzip = get("gzip", null);
+
+        assertThat(plain.getHeader(HttpHeaders.ETAG)).isNotEqualTo(gzip.getHeader(HttpHeaders.ETAG));
+        assertThat(gzip.getHeader(HttpHeaders.ETAG)).endsWith("-gzip\"");
+        assertThat(gzip.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    @Test
+    void tagIsOnlyMatchedForTheSameEncoding() {
+        String gzipTag = get("gzip", null).getHeader(HttpHeaders.ETAG);
+
+        assertThat(get("gzip, deflate", gzipTag).getStatus()).isEqualTo(304);
+        assertThat(get(null, gzipTag).getStatus()).isEqualTo(200);
+        assertThat(get("gzip;q=0", gzipTag).getStatus()).isEqualTo(200);
+    }
+
+    private MockHttpServletResponse get(String acceptEncoding, String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean proceed = interceptor.preHandle(request, response, handler);
+        assertThat(proceed).isEqualTo(response.getStatus() != 304);
+        return response;
+    }
+
+    static class Listing {
+        @CatalogETag
+        public String list() {
+            return "";
+        }
+    }
+}
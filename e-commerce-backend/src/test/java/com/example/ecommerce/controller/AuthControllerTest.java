@@ -0,0 +1,127 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.dto.RegisterRequest;
+import com.example.ecommerce.entity.Role;
+import com.example.ecommerce.entity.User;
+import com.example.ecommerce.repository.RoleRepository;
+import com.example.ecommerce.repository.UserRepository;
+import com.example.ecommerce.security.PasswordHashingExecutor;
+import com.example.ecommerce.security.services.TokenVersionService;
+import com.example.ecommerce.security.services.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AuthControllerTest {
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Mock
+    private PasswordEncoder encoder;
+
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @InjectMocks
+    private AuthController authController;
+
+    private PasswordHashingExecutor hashing;
+    private ExecutorService tasks;
+
+    @BeforeEach
+    void setUp() {
+        hashing = new PasswordHashingExecutor();
+        ReflectionTestUtils.setField(hashing, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(hashing, "threads", 1);
+        ReflectionTestUtils.setField(hashing, "queueCapacity", 1);
+        hashing.init();
+        tasks = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "app-task"));
+        authController.passwordHashingExecutor = hashing;
+        authController.applicationTaskExecutor = tasks;
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashing.shutdown();
+        tasks.shutdownNow();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void logoutRevokesTheCurrentUsersTokens() {
+        UserDetailsImpl user = new UserDetailsImpl(42L, "jane@example.com", "jane@example.com", "Jane", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER"), 3);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        ResponseEntity<?> response = authController.logout();
+
+        assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+        verify(tokenVersionService).revokeTokens(42L);
+    }
+
+    @Test
+    void registrationHashesOnTheHashingPoolAndSavesOffIt() throws Exception {
+        AtomicReference<String> hashedOn = new AtomicReference<>();
+        AtomicReference<String> savedOn = new AtomicReference<>();
+        when(encoder.encode("secret123")).thenAnswer(invocation -> {
+            hashedOn.set(Thread.currentThread().getName());
+            return "hashed";
+        });
+        when(roleRepository.findByName("ROLE_USER")).thenReturn(Optional.of(new Role(1L, "ROLE_USER")));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            savedOn.set(Thread.currentThread().getName());
+            assertThat(invocation.<User>getArgument(0).getPassword()).isEqualTo("hashed");
+            return invocation.getArgument(0);
+        });
+
+        ResponseEntity<?> response = authController.registerUser(request()).get(5, TimeUnit.SECONDS);
+
+        assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+        assertThat(hashedOn.get()).startsWith("password-hash-");
+        assertThat(savedOn.get()).isEqualTo("app-task");
+    }
+
+    @Test
+    void takenEmailIsRejectedWithoutHashing() throws Exception {
+        when(userRepository.existsByEmail("jane@example.com")).thenReturn(true);
+
+        ResponseEntity<?> response = authController.registerUser(request()).get(5, TimeUnit.SECONDS);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(400);
+    }
+
+    private static RegisterRequest request() {
+        RegisterRequest request = new RegisterRequest();
+        request.setName("Jane");
+        request.setEmail("jane@example.com");
+        request.setPassword("secret123");
+        return request;
+    }
+}
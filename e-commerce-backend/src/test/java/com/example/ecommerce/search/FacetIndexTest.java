@@ -0,0 +1,155 @@
+package com.example.ecommerce.search;
+
+import com.example.ecommerce.entity.Category;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.CategoryRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FacetIndexTest {
+    private static final FacetQuery ALL = new FacetQuery(null, null, false, 0, 100);
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @InjectMocks
+    private FacetIndex facetIndex;
+
+    private final List<Object[]> categories = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // 1 Electronics > 2 Phones
+        categories.add(new Object[]{1L, null, "Electronics"});
+        categories.add(new Object[]{2L, 1L, "Phones"});
+        when(categoryRepository.findCategoryLinks()).thenReturn(categories);
+    }
+
+    @Test
+    void rebuildIndexesCategoriesWithAncestorsPricesAndStock() {
+        when(productRepository.findFacetSources(anyLong(), any(Pageable.class))).thenReturn(List.of(
+                new FacetSource(10L, 2L, new BigDecimal("30"), 5),
+                new FacetSource(11L, 1L, new BigDecimal("600"), 0)));
+
+        facetIndex.rebuild();
+
+        assertThat(facetIndex.isReady()).isTrue();
+        assertThat(facetIndex.query(new FacetQuery(List.of(1L), null, false, 0, 10)).productIds())
+                .containsExactly(10L, 11L);
+        assertThat(facetIndex.query(new FacetQuery(List.of(2L), null, false, 0, 10)).productIds())
+                .containsExactly(10L);
+        assertThat(facetIndex.query(new FacetQuery(null, List.of(FacetIndex.priceBucket(new BigDecimal("30"))),
+                true, 0, 10)).productIds()).containsExactly(10L);
+    }
+
+    @Test
+    void queriesAndWritesProceedWhileTheRebuildLoads() throws Exception {
+        when(productRepository.findFacetSources(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(new FacetSource(10L, 2L, new BigDecimal("30"), 5)));
+        facetIndex.rebuild();
+
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(productRepository.findFacetSources(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            // Loaded before the writes below reached the database
+            return List.of(new FacetSource(10L, 2L, new BigDecimal("30"), 5));
+        });
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(facetIndex::rebuild);
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Writes and reads don't wait for the load, and the writes are visible right away
+        FacetResult during = CompletableFuture.supplyAsync(() -> {
+            facetIndex.putProduct(product(12L, 2L, "700", 3));
+            facetIndex.patchProduct(10L, null, 0, null);
+            return facetIndex.query(ALL);
+        }).get(5, TimeUnit.SECONDS);
+        assertThat(during.productIds()).containsExactly(10L, 12L);
+        assertThat(during.inStock()).isEqualTo(1);
+
+        release.countDown();
+        rebuild.get(5, TimeUnit.SECONDS);
+
+        // The writes were replayed onto the rebuilt bitmaps before the swap
+        FacetResult after = facetIndex.query(ALL);
+        assertThat(after.productIds()).containsExactly(10L, 12L);
+        assertThat(after.inStock()).isEqualTo(1);
+    }
+
+    @Test
+    void failedRebuildKeepsTheCurrentIndex() {
+        when(productRepository.findFacetSources(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(new FacetSource(10L, 2L, new BigDecimal("30"), 5)));
+        facetIndex.rebuild();
+
+        when(productRepository.findFacetSources(anyLong(), any(Pageable.class)))
+                .thenThrow(new IllegalStateException("database down"));
+        facetIndex.rebuild();
+
+        assertThat(facetIndex.query(ALL).productIds()).containsExactly(10L);
+        // No rebuild left pending, so writes are no longer queued for replay
+        facetIndex.removeProduct(10L);
+        assertThat(facetIndex.query(ALL).productIds()).isEmpty();
+    }
+
+    @Test
+    void removingACategoryDropsItsSubtreeAndProducts() {
+        when(productRepository.findFacetSources(anyLong(), any(Pageable.class))).thenReturn(List.of(
+                new FacetSource(10L, 2L, new BigDecimal("30"), 5),
+                new FacetSource(11L, 3L, new BigDecimal("30"), 5)));
+        categories.add(new Object[]{3L, null, "Books"});
+        facetIndex.rebuild();
+
+        facetIndex.removeCategory(1L);
+
+        FacetResult result = facetIndex.query(ALL);
+        assertThat(result.productIds()).containsExactly(11L);
+        assertThat(result.categories()).extracting(FacetResult.CategoryCount::id).containsExactly(3L);
+    }
+
+    @Test
+    void hugeLimitOnlySizesThePageToTheMatches() {
+        when(productRepository.findFacetSources(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(new FacetSource(10L, 2L, new BigDecimal("30"), 5)));
+        facetIndex.rebuild();
+
+        assertThat(facetIndex.query(new FacetQuery(null, null, false, 0, Integer.MAX_VALUE)).productIds())
+                .containsExactly(10L);
+        assertThat(facetIndex.query(new FacetQuery(null, null, false, Integer.MAX_VALUE, 20)).productIds())
+                .isEmpty();
+    }
+
+    private static Product product(Long id, Long categoryId, String price, int stock) {
+        Category category = new Category();
+        category.setId(categoryId);
+        Product product = new Product();
+        product.setId(id);
+        product.setCategory(category);
+        product.setPrice(new BigDecimal(price));
+        product.setStock(stock);
+        return product;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.ecommerce.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTest {
+    private final InvertedIndex index = new InvertedIndex();
+
+    @Test
+    void everyTokenMustMatchAndTheLastOneAsAPrefix() {
+        add(1, "Red Running Shoes", "Footwear");
+        add(2, "Red Dress", "Clothing");
+        add(3, "Blue Running Shorts", "Clothing");
+
+        assertThat(search("red run", 0, 10).productIds()).containsExactly(1L);
+        assertThat(search("running sho", 0, 10).productIds()).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(search("green", 0, 10).total()).isZero();
+    }
+
+    @Test
+    void nameMatchesOutrankDescriptionMatches() {
+        index.add(InvertedIndex.tokenize(new ProductDocument(1L, "Kettle", "Pairs well with a lamp", "Kitchen")));
+        index.add(InvertedIndex.tokenize(new ProductDocument(2L, "Lamp", "Warm light", "Lighting")));
+
+        assertThat(search("lamp", 0, 10).productIds()).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void removedAndReplacedProductsDropOutOfResults() {
+        add(1, "Desk Lamp", "Lighting");
+        add(2, "Floor Lamp", "Lighting");
+        index.remove(1L);
+        add(2, "Floor Light", "Lighting");
+
+        assertThat(search("lamp", 0, 10).total()).isZero();
+        assertThat(search("light", 0, 10).productIds()).containsExactly(2L);
+    }
+
+    @Test
+    void pagesConcatenateToTheFullRanking() {
+        for (int i = 1; i <= 200; i++) {
+            // Varying lengths give varying scores; equal lengths tie and fall back to insertion order
+            add(i, "Cable " + "x ".repeat(i % 7), "Electronics");
+        }
+
+        List<Long> all = search("cable", 0, 200).productIds();
+        List<Long> paged = new ArrayList<>();
+        for (int offset = 0; offset < 200; offset += 30) {
+            paged.addAll(search("cable", offset, 30).productIds());
+        }
+
+        assertThat(all).hasSize(200).doesNotHaveDuplicates();
+        assertThat(paged).isEqualTo(all);
+        assertThat(search("cable", 190, 30).productIds()).isEqualTo(all.subList(190, 200));
+    }
+
+    @Test
+    void outOfRangeWindowsReturnAnEmptyPageWithTheTotal() {
+        add(1, "Mug", "Kitchen");
+
+        assertThat(search("mug", 0, Integer.MAX_VALUE).productIds()).containsExactly(1L);
+        assertThat(search("mug", Integer.MAX_VALUE, Integer.MAX_VALUE).productIds()).isEmpty();
+        assertThat(search("mug", 5, 10).total()).isEqualTo(1);
+        assertThat(search("mug", 0, 0).total()).isEqualTo(1);
+    }
+
+    @Test
+    void consecutiveAndConcurrentSearchesDoNotShareScores() throws Exception {
+        for (int i = 1; i <= 500; i++) {
+            add(i, (i % 2 == 0 ? "Steel Bottle " : "Glass Jar ") + i, "Kitchen");
+        }
+        List<Long> bottles = search("steel bot", 0, 20).productIds();
+        List<Long> jars = search("glass", 0, 20).productIds();
+
+        List<CompletableFuture<Boolean>> runs = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            runs.add(CompletableFuture.supplyAsync(() -> {
+                for (int i = 0; i < 200; i++) {
+                    if (!search("steel bot", 0, 20).productIds().equals(bottles)
+                            || !search("glass", 0, 20).productIds().equals(jars)) {
+                        return false;
+                    }
+                }
+                return true;
+            }));
+        }
+        for (CompletableFuture<Boolean> run : runs) {
+            assertThat(run.get(30, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    private void add(long id, String name, String category) {
+        index.add(InvertedIndex.tokenize(new ProductDocument(id, name, null, category)));
+    }
+
+    private SearchResult search(String query, int offset, int limit) {
+        return index.search(InvertedIndex.tokenize(query), offset, limit);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.ecommerce.search;
+
+import com.example.ecommerce.entity.Category;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.CategoryRepository;
+import com.example.ecommerce.repository.OrderRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestionIndexTest {
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @InjectMocks
+    private SuggestionIndex suggestionIndex;
+
+    @Test
+    void bestSellersComeFirstAndCategoriesAheadOfProducts() {
+        build(List.of(new ProductName(1L, "Phone Case"), new ProductName(2L, "Premium Smartphone"),
+                        new ProductName(3L, "Phone Charger")),
+                List.of(new Object[]{2L, 50L}, new Object[]{3L, 10L}),
+                List.of(category(7L, "Phones")));
+
+        assertThat(texts(suggestionIndex.suggest("pho", 10)))
+                .containsExactly("Phones", "Phone Charger", "Phone Case");
+        assertThat(texts(suggestionIndex.suggest("sma", 10))).containsExactly("Premium Smartphone");
+        assertThat(texts(suggestionIndex.suggest("pho", 2))).containsExactly("Phones", "Phone Charger");
+    }
+
+    @Test
+    void productMatchingOnTwoWordsIsSuggestedOnce() {
+        build(List.of(new ProductName(1L, "Blue Blanket"), new ProductName(2L, "Blender")), List.of(), List.of());
+
+        assertThat(texts(suggestionIndex.suggest("bl", 10))).containsExactly("Blender", "Blue Blanket");
+    }
+
+    @Test
+    void topOfALargePrefixMatchesAFullSort() {
+        Random random = new Random(42);
+        List<ProductName> products = new ArrayList<>();
+        List<Object[]> sales = new ArrayList<>();
+        for (long id = 1; id <= 5000; id++) {
+            products.add(new ProductName(id, (random.nextBoolean() ? "Shirt " : "Shoe ") + id));
+            sales.add(new Object[]{id, (long) random.nextInt(200)});
+        }
+        build(products, sales, List.of());
+
+        List<ProductName> shirts = new ArrayList<>(products.stream()
+                .filter(product -> product.name().startsWith("Shirt")).toList());
+        // Weight is units sold plus one, ties broken by name
+        shirts.sort(Comparator.comparingLong((ProductName product) -> -sold(sales, product.id()))
+                .thenComparing(ProductName::name));
+
+        assertThat(texts(suggestionIndex.suggest("shi", 20)))
+                .containsExactlyElementsOf(shirts.subList(0, 20).stream().map(ProductName::name).toList());
+    }
+
+    @Test
+    void removedAndRenamedProductsAreReflectedBeforeCompaction() {
+        build(List.of(new ProductName(1L, "Lamp"), new ProductName(2L, "Lantern"), new ProductName(3L, "Laptop")),
+                List.of(new Object[]{1L, 30L}, new Object[]{2L, 20L}, new Object[]{3L, 10L}), List.of());
+
+        suggestionIndex.removeProduct(1L);
+        suggestionIndex.putProduct(product(2L, "Torch"));
+        suggestionIndex.putProduct(product(4L, "Ladder"));
+
+        assertThat(texts(suggestionIndex.suggest("la", 10))).containsExactly("Laptop", "Ladder");
+        assertThat(texts(suggestionIndex.suggest("la", 1))).containsExactly("Laptop");
+        assertThat(texts(suggestionIndex.suggest("to", 10))).containsExactly("Torch");
+    }
+
+    @Test
+    void shortPrefixOrNoLimitFindsNothing() {
+        build(List.of(new ProductName(1L, "Lamp")), List.of(), List.of());
+
+        assertThat(suggestionIndex.suggest("l", 10)).isEmpty();
+        assertThat(suggestionIndex.suggest("la", 0)).isEmpty();
+        assertThat(suggestionIndex.suggest("zz", 10)).isEmpty();
+    }
+
+    private void build(List<ProductName> products, List<Object[]> sales, List<Category> categories) {
+        when(orderRepository.sumQuantityByProduct()).thenReturn(sales);
+        when(productRepository.findNamesAfter(anyLong(), any(Pageable.class))).thenReturn(products);
+        when(categoryRepository.findAll()).thenReturn(categories);
+        suggestionIndex.rebuild();
+    }
+
+    private static long sold(List<Object[]> sales, Long productId) {
+        return sales.stream().filter(row -> row[0].equals(productId)).mapToLong(row -> (Long) row[1]).sum();
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::text).toList();
+    }
+
+    private static Category category(Long id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+
+    private static Product product(Long id, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        return product;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.ecommerce.security.jwt;
+
+import com.example.ecommerce.security.WebSecurityConfig;
+import com.example.ecommerce.security.services.TokenVersionService;
+import com.example.ecommerce.security.services.UserDetailsImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the JWT filter on a catalog GET that carries a Bearer token: skipped
+ * by the matcher, verified with the token in the verified-token cache, and
+ * verified from scratch on every request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthTokenFilterBenchmark {
+    private static final String PATH = "/api/products/42";
+
+    private AuthTokenFilter skipping;
+    private AuthTokenFilter cached;
+    private AuthTokenFilter uncached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        skipping = new WebSecurityConfig().authenticationJwtTokenFilter();
+        JwtUtils cachingJwt = jwtUtils(10_000);
+        wire(skipping, cachingJwt);
+
+        cached = new AuthTokenFilter();
+        wire(cached, cachingJwt);
+
+        // Size 0 turns the verified-token cache off, so every request checks the signature
+        uncached = new AuthTokenFilter();
+        wire(uncached, jwtUtils(0));
+
+        UserDetailsImpl user = new UserDetailsImpl(1L, "shopper@example.com", "shopper@example.com", "Shopper",
+                null, List.of(new SimpleGrantedAuthority("ROLE_USER")), 0);
+        token = cachingJwt.generateJwtToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @Benchmark
+    public Object skipped() throws Exception {
+        return filter(skipping);
+    }
+
+    @Benchmark
+    public Object verifiedCached() throws Exception {
+        return filter(cached);
+    }
+
+    @Benchmark
+    public Object verifiedUncached() throws Exception {
+        return filter(uncached);
+    }
+
+    private Object filter(AuthTokenFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", PATH);
+        request.setServletPath(PATH);
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    private static JwtUtils jwtUtils(int cacheSize) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret",
+                "antigravitySecretKeyForEcommerceProjectMakeItLongEnoughForHS512Algorithm");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86_400_000);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheSize", cacheSize);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    private static void wire(AuthTokenFilter filter, JwtUtils jwtUtils) {
+        TokenVersionService tokenVersions = new TokenVersionService();
+        ReflectionTestUtils.setField(tokenVersions, "enabled", false);
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "tokenVersionService", tokenVersions);
+    }
+}
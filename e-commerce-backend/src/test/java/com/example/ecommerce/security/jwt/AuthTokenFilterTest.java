@@ -0,0 +1,91 @@
+package com.example.ecommerce.security.jwt;
+
+import com.example.ecommerce.security.WebSecurityConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class AuthTokenFilterTest {
+    private final AuthTokenFilter filter = new WebSecurityConfig().authenticationJwtTokenFilter();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "GET, /api/products",
+            "GET, /api/products/42",
+            "GET, /api/products/search",
+            "GET, /api/categories",
+            "GET, /api/categories/7/products",
+            "GET, /api/cart/guest",
+            "POST, /api/cart/guest/batch",
+    })
+    void anonymousReadsSkipTheToken(String method, String path) {
+        assertThat(filter.shouldNotFilter(request(method, path))).isTrue();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "POST, /api/products",
+            "PUT, /api/products/42",
+            "PATCH, /api/products/42",
+            "DELETE, /api/products/42",
+            "POST, /api/categories",
+            "DELETE, /api/categories/7",
+            "GET, /api/cart",
+            "POST, /api/cart/batch",
+            "GET, /api/orders",
+            "GET, /api/productsx",
+    })
+    void writesAndUserEndpointsReadTheToken(String method, String path) {
+        assertThat(filter.shouldNotFilter(request(method, path))).isFalse();
+    }
+
+    @Test
+    void skippedRequestNeverParsesTheToken() throws Exception {
+        JwtUtils jwtUtils = mock(JwtUtils.class);
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        MockHttpServletRequest request = request("GET", "/api/products/42");
+        request.addHeader("Authorization", "Bearer some.jwt.token");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        verify(jwtUtils, never()).parseClaims(anyString());
+        assertThat(chain.getRequest()).isSameAs(request);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void writeRequestParsesTheToken() throws Exception {
+        JwtUtils jwtUtils = mock(JwtUtils.class);
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        MockHttpServletRequest request = request("PUT", "/api/products/42");
+        request.addHeader("Authorization", "Bearer some.jwt.token");
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(jwtUtils).parseClaims("some.jwt.token");
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        return request;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.ecommerce.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+    private final AtomicLong nanos = new AtomicLong();
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(100, nanos::get);
+
+    @Test
+    void verifiedTokenIsServedUntilItsExp() {
+        Claims claims = claims("jane", TimeUnit.MINUTES.toMillis(10));
+        cache.put("token-a", claims);
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(9));
+        assertThat(cache.get("token-a")).isSameAs(claims);
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        assertThat(cache.get("token-a")).isNull();
+    }
+
+    @Test
+    void tokensExpireIndependently() {
+        cache.put("short", claims("jane", TimeUnit.MINUTES.toMillis(1)));
+        cache.put("long", claims("john", TimeUnit.HOURS.toMillis(1)));
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(5));
+
+        assertThat(cache.get("short")).isNull();
+        assertThat(cache.get("long")).isNotNull();
+    }
+
+    @Test
+    void expiredOrExpiryLessTokensAreNotServed() {
+        cache.put("expired", claims("jane", -1000));
+        cache.put("no-exp", Jwts.claims().subject("jane").build());
+
+        assertThat(cache.get("expired")).isNull();
+        assertThat(cache.get("no-exp")).isNull();
+    }
+
+    @Test
+    void fullCacheEvictsSomeEntriesRatherThanAll() {
+        for (int i = 0; i < 1000; i++) {
+            cache.put("token-" + i, claims("user" + i, TimeUnit.HOURS.toMillis(1)));
+        }
+
+        assertThat(cache.size()).isEqualTo(100);
+    }
+
+    @Test
+    void sizeZeroTurnsCachingOff() {
+        VerifiedTokenCache disabled = new VerifiedTokenCache(0);
+        disabled.put("token-a", claims("jane", TimeUnit.MINUTES.toMillis(10)));
+
+        assertThat(disabled.get("token-a")).isNull();
+    }
+
+    private static Claims claims(String subject, long expiresInMs) {
+        return Jwts.claims()
+                .subject(subject)
+                .expiration(new Date(System.currentTimeMillis() + expiresInMs))
+                .build();
+    }
+}
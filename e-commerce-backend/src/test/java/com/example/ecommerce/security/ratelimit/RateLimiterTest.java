@@ -0,0 +1,133 @@
+package com.example.ecommerce.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+    // 10 per minute: one token every 6 seconds, bursts of up to 10
+    private static final long INTERVAL = TimeUnit.SECONDS.toNanos(6);
+    private static final long START = 1_000_000_000_000L;
+
+    private final RateLimiter limiter = new RateLimiter(10, Duration.ofMinutes(1), 1000);
+
+    @Test
+    void fullBucketAllowsABurstOfCapacity() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire("a", START)).isZero();
+        }
+        assertThat(limiter.tryAcquire("a", START)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void rejectedRequestReportsTheWaitUntilTheNextToken() {
+        drain("a", START);
+
+        assertThat(limiter.tryAcquire("a", START + INTERVAL / 3)).isEqualTo(INTERVAL - INTERVAL / 3);
+        assertThat(limiter.tryAcquire("a", START + INTERVAL - 1)).isEqualTo(1);
+        // Rejections take nothing, so the token still arrives on time
+        assertThat(limiter.tryAcquire("a", START + INTERVAL)).isZero();
+        assertThat(limiter.tryAcquire("a", START + INTERVAL)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void tokensRefillOnePerIntervalUpToTheBurst() {
+        drain("a", START);
+
+        long later = START + 3 * INTERVAL;
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("a", later)).isZero();
+        }
+        assertThat(limiter.tryAcquire("a", later)).isPositive();
+
+        // A long idle period refills the bucket but never beyond its capacity
+        long muchLater = later + TimeUnit.HOURS.toNanos(1);
+        assertThat(drain("a", muchLater)).isEqualTo(10);
+    }
+
+    @Test
+    void steadyRateAtTheLimitIsNeverRejected() {
+        drain("a", START);
+        for (int i = 1; i <= 100; i++) {
+            assertThat(limiter.tryAcquire("a", START + i * INTERVAL)).isZero();
+        }
+    }
+
+    @Test
+    void keysHaveIndependentBuckets() {
+        drain("a", START);
+
+        assertThat(limiter.tryAcquire("b", START)).isZero();
+        assertThat(limiter.tryAcquire("a", START)).isPositive();
+    }
+
+    @Test
+    void fullBucketsAreEvictedFirstWhenTheKeyLimitIsReached() {
+        RateLimiter small = new RateLimiter(10, Duration.ofMinutes(1), 3);
+        for (int i = 0; i < 10; i++) {
+            small.tryAcquire("busy", START);
+        }
+        small.tryAcquire("idle1", START);
+        small.tryAcquire("idle2", START);
+
+        // Both idle buckets have refilled by now, the busy one has not
+        small.tryAcquire("new", START + 2 * INTERVAL);
+
+        assertThat(small.size()).isEqualTo(2);
+        // The busy bucket kept its state: only the two refilled tokens are there
+        int allowed = 0;
+        while (small.tryAcquire("busy", START + 2 * INTERVAL) == 0) {
+            allowed++;
+        }
+        assertThat(allowed).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheBurst() throws Exception {
+        RateLimiter hourly = new RateLimiter(1000, Duration.ofHours(1), 1000);
+        int threads = 32;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    int allowed = 0;
+                    for (int i = 0; i < 500; i++) {
+                        if (hourly.tryAcquire("shared") == 0) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                }));
+            }
+            start.countDown();
+            int allowed = 0;
+            for (Future<Integer> result : results) {
+                allowed += result.get(30, TimeUnit.SECONDS);
+            }
+            // 16,000 attempts in well under one 3.6 s refill interval: the burst plus at most a token or two
+            assertThat(allowed).isBetween(1000, 1002);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private int drain(String key, long now) {
+        int allowed = 0;
+        while (limiter.tryAcquire(key, now) == 0) {
+            allowed++;
+        }
+        return allowed;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.ecommerce.security.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CurrentUserTest {
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void idComesFromThePrincipal() {
+        UserDetailsImpl user = new UserDetailsImpl(42L, "jane@example.com", "jane@example.com", "Jane", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER"), 3);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        assertThat(CurrentUser.getId()).isEqualTo(42L);
+        assertThat(CurrentUser.get()).isSameAs(user);
+    }
+
+    @Test
+    void missingAuthenticationIsRejected() {
+        assertThatThrownBy(CurrentUser::getId).hasMessage("User not authenticated");
+    }
+
+    @Test
+    void anonymousAuthenticationIsRejected() {
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("key", "anonymousUser",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+
+        assertThatThrownBy(CurrentUser::getId).hasMessage("User not authenticated");
+    }
+
+    @Test
+    void principalOtherThanUserDetailsImplIsRejected() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("jane@example.com", null, List.of()));
+
+        assertThatThrownBy(CurrentUser::getId).hasMessage("User not authenticated");
+    }
+}
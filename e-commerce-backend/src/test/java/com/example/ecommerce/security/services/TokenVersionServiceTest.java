@@ -0,0 +1,63 @@
+package com.example.ecommerce.security.services;
+
+import com.example.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionServiceTest {
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private TokenVersionService tokenVersions;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tokenVersions, "enabled", true);
+        ReflectionTestUtils.setField(tokenVersions, "cacheTtlMs", 60_000L);
+    }
+
+    @Test
+    void currentStampIsRememberedBetweenRequests() {
+        when(userRepository.findTokenVersionById(42L)).thenReturn(Optional.of(0));
+
+        assertThat(tokenVersions.isCurrent(42L, 0)).isTrue();
+        assertThat(tokenVersions.isCurrent(42L, 0)).isTrue();
+
+        verify(userRepository, times(1)).findTokenVersionById(42L);
+    }
+
+    @Test
+    void revokingRejectsTokensWithTheOlderStamp() {
+        when(userRepository.findTokenVersionById(42L)).thenReturn(Optional.of(0));
+        assertThat(tokenVersions.isCurrent(42L, 0)).isTrue();
+
+        tokenVersions.revokeTokens(42L);
+        when(userRepository.findTokenVersionById(42L)).thenReturn(Optional.of(1));
+
+        // Rejected right away, not once the remembered stamp goes stale
+        assertThat(tokenVersions.isCurrent(42L, 0)).isFalse();
+        assertThat(tokenVersions.isCurrent(42L, 1)).isTrue();
+        verify(userRepository).incrementTokenVersion(42L);
+    }
+
+    @Test
+    void deletedUserIsRejected() {
+        when(userRepository.findTokenVersionById(42L)).thenReturn(Optional.empty());
+
+        assertThat(tokenVersions.isCurrent(42L, 0)).isFalse();
+    }
+}
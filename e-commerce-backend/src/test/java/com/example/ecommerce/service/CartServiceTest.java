@@ -0,0 +1,98 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.cart.CartLine;
+import com.example.ecommerce.cart.CartStore;
+import com.example.ecommerce.cart.GuestCartStore;
+import com.example.ecommerce.dto.CartOperation;
+import com.example.ecommerce.entity.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CartServiceTest {
+    @Mock
+    private CartStore cartStore;
+
+    @Mock
+    private GuestCartStore guestCarts;
+
+    @Mock
+    private ProductService productService;
+
+    @InjectMocks
+    private CartService cartService;
+
+    @Test
+    void batchWithAnUnknownProductChangesNothing() {
+        Product known = new Product();
+        known.setId(1L);
+        known.setPrice(new BigDecimal("5.00"));
+        when(productService.findProductsById(any())).thenReturn(Map.of(1L, known));
+
+        assertThatThrownBy(() -> cartService.applyOperations(3L, List.of(
+                operation(CartOperation.Type.ADD, 1L, 2),
+                operation(CartOperation.Type.ADD, 99L, 1))))
+                .hasMessage("Product not found");
+
+        verifyNoInteractions(cartStore);
+    }
+
+    @Test
+    void invalidBatchIsRejectedBeforeAnyLookup() {
+        assertThatThrownBy(() -> cartService.applyOperations(3L, List.of(
+                operation(CartOperation.Type.ADD, 1L, 2),
+                operation(CartOperation.Type.SET, 2L, -1))))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> cartService.applyOperations(3L, List.of()))
+                .isInstanceOf(ResponseStatusException.class);
+
+        verifyNoInteractions(productService, cartStore);
+    }
+
+    @Test
+    void failedMergePutsTheGuestLinesBack() {
+        List<CartLine> lines = List.of(new CartLine(1L, 2, new BigDecimal("5.00")));
+        when(guestCarts.take("token")).thenReturn(lines);
+        doThrow(new RuntimeException("Product not found")).when(cartStore).apply(eq(3L), anyList());
+
+        assertThatThrownBy(() -> cartService.mergeGuestCart(3L, "token")).hasMessage("Product not found");
+
+        verify(guestCarts).restore("token", lines);
+    }
+
+    @Test
+    void successfulMergeLeavesTheGuestCartRemoved() {
+        when(guestCarts.take("token")).thenReturn(List.of(new CartLine(1L, 2, new BigDecimal("5.00"))));
+
+        cartService.mergeGuestCart(3L, "token");
+
+        verify(cartStore).apply(eq(3L), anyList());
+        verify(guestCarts, never()).restore(any(), any());
+    }
+
+    private static CartOperation operation(CartOperation.Type type, Long productId, int quantity) {
+        CartOperation operation = new CartOperation();
+        operation.setOp(type);
+        operation.setProductId(productId);
+        operation.setQuantity(quantity);
+        return operation;
+    }
+}
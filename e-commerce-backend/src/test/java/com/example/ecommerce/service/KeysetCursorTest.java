@@ -0,0 +1,54 @@
+package com.example.ecommerce.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+    @Test
+    void roundTripsSortValueAndId() {
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.encode("price", "19.99", 42L), "price");
+
+        assertThat(cursor.id()).isEqualTo(42L);
+        assertThat(cursor.decimalValue()).isEqualByComparingTo(new BigDecimal("19.99"));
+    }
+
+    @Test
+    void emptyTokenMeansTheFirstPage() {
+        assertThat(KeysetCursor.decode(null, "id")).isNull();
+        assertThat(KeysetCursor.decode("", "id")).isNull();
+    }
+
+    @Test
+    void tamperedPriceIsABadRequest() {
+        KeysetCursor cursor = KeysetCursor.decode(token("price|cheap|42"), "price");
+
+        assertBadRequest(() -> cursor.decimalValue());
+        assertBadRequest(() -> KeysetCursor.decode(token("price||42"), "price").decimalValue());
+    }
+
+    @Test
+    void malformedTokensAreBadRequests() {
+        assertBadRequest(() -> KeysetCursor.decode("not base64!", "id"));
+        assertBadRequest(() -> KeysetCursor.decode(token("id||x"), "id"));
+        assertBadRequest(() -> KeysetCursor.decode(token("id|7"), "id"));
+        assertBadRequest(() -> KeysetCursor.decode(KeysetCursor.encode("price", "1", 7L), "id"));
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertBadRequest(Runnable action) {
+        assertThatThrownBy(action::run)
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+}
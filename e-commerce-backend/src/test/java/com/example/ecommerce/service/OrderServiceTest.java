@@ -0,0 +1,114 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.cart.CartLine;
+import com.example.ecommerce.dto.OrderRequest;
+import com.example.ecommerce.entity.Order;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.entity.User;
+import com.example.ecommerce.repository.OrderRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceTest {
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private CartService cartService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    @Test
+    void placingAnOrderReferencesTheUserWithoutLoadingIt() {
+        User reference = new User();
+        reference.setId(7L);
+        Product product = new Product(3L, "Pan", null, new BigDecimal("19.99"), 5, null, null, null, null);
+        when(cartService.getLines(7L)).thenReturn(List.of(new CartLine(3L, 2, new BigDecimal("19.99"))));
+        when(userRepository.getReferenceById(7L)).thenReturn(reference);
+        when(productRepository.findAllById(List.of(3L))).thenReturn(List.of(product));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        OrderRequest.ShippingAddress address = new OrderRequest.ShippingAddress();
+        address.setFullName("Jane");
+        Order order = orderService.placeOrder(7L, new OrderRequest(address, "COD"));
+
+        assertThat(order.getUser()).isSameAs(reference);
+        assertThat(order.getTotalAmount()).isEqualByComparingTo("39.98");
+        verify(userRepository).getReferenceById(7L);
+        verifyNoMoreInteractions(userRepository);
+        verify(cartService).clearCart(7L);
+    }
+
+    @Test
+    void listingOrdersIsOneQueryByUserId() {
+        Order order = order(10L, 7L, "PENDING");
+        when(orderRepository.findByUserId(7L)).thenReturn(List.of(order));
+
+        assertThat(orderService.getUserOrders(7L)).containsExactly(order);
+
+        verify(orderRepository).findByUserId(7L);
+        verifyNoMoreInteractions(orderRepository);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void orderOwnershipIsCheckedAgainstTheIdWithoutAUserLookup() {
+        Order order = order(10L, 7L, "PENDING");
+        when(orderRepository.findById(10L)).thenReturn(Optional.of(order));
+
+        assertThat(orderService.getOrderById(7L, 10L)).isSameAs(order);
+        assertThatThrownBy(() -> orderService.getOrderById(8L, 10L))
+                .hasMessage("Unauthorized access to order");
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void cancellingIsOneReadAndOneWrite() {
+        Order order = order(10L, 7L, "PENDING");
+        when(orderRepository.findById(10L)).thenReturn(Optional.of(order));
+        when(orderRepository.save(order)).thenReturn(order);
+
+        assertThat(orderService.cancelOrder(7L, 10L).getStatus()).isEqualTo("CANCELLED");
+
+        verify(orderRepository).findById(10L);
+        verify(orderRepository).save(order);
+        verifyNoMoreInteractions(orderRepository);
+        verifyNoInteractions(userRepository);
+    }
+
+    private static Order order(Long id, Long userId, String status) {
+        User user = new User();
+        user.setId(userId);
+        Order order = new Order();
+        order.setId(id);
+        order.setUser(user);
+        order.setStatus(status);
+        return order;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.cache.CatalogVersion;
+import com.example.ecommerce.cache.CategoryTree;
+import com.example.ecommerce.cache.CategoryTreeCache;
+import com.example.ecommerce.dto.ProductImportReport;
+import com.example.ecommerce.search.SuggestionIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private CategoryTreeCache categoryTree;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private CatalogVersion catalogVersion;
+
+    @Mock
+    private SuggestionIndex suggestionIndex;
+
+    @InjectMocks
+    private ProductImportService importService;
+
+    private final AtomicLong nextId = new AtomicLong(100);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(importService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(importService, "applicationTaskExecutor", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(importService, "batchSize", 2);
+        importService.init();
+        when(categoryTree.isReady()).thenReturn(true);
+        when(categoryTree.get()).thenReturn(CategoryTree.EMPTY);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    void eachBatchIsIndexedByItsGeneratedIds() throws Exception {
+        insertsSucceed();
+
+        ProductImportReport report = importService.importNdjson(ndjson(
+                "{\"name\":\"Pan\",\"price\":\"19.99\"}",
+                "{\"name\":\"Pot\",\"price\":\"24.50\"}",
+                "{\"name\":\"Lid\",\"price\":\"5\"}"));
+
+        assertThat(report.getRowsImported()).isEqualTo(3);
+        verify(productService).indexNewProducts(List.of(101L, 102L));
+        verify(productService).indexNewProducts(List.of(103L));
+        verify(catalogVersion).bump();
+        verify(suggestionIndex).rebuild();
+    }
+
+    @Test
+    void failedBatchIsNotIndexed() throws Exception {
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        ProductImportReport report = importService.importNdjson(ndjson("{\"name\":\"Pan\",\"price\":\"19.99\"}"));
+
+        assertThat(report.getBatchesFailed()).isEqualTo(1);
+        verify(productService, never()).indexNewProducts(anyList());
+        verifyNoInteractions(catalogVersion, suggestionIndex);
+    }
+
+    @Test
+    void indexingFailureKeepsTheReport() throws Exception {
+        insertsSucceed();
+        doThrow(new IllegalStateException("database unavailable"))
+                .when(productService).indexNewProducts(anyList());
+
+        ProductImportReport report = importService.importNdjson(ndjson("{\"name\":\"Pan\",\"price\":\"19.99\"}"));
+
+        assertThat(report.getRowsImported()).isEqualTo(1);
+        verify(catalogVersion).bump();
+    }
+
+    // Every inserted row gets the next id, as MySQL would hand out
+    private void insertsSucceed() {
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class))).thenAnswer(invocation -> {
+                    BatchPreparedStatementSetter rows = invocation.getArgument(1);
+                    KeyHolder keys = invocation.getArgument(2);
+                    for (int i = 0; i < rows.getBatchSize(); i++) {
+                        keys.getKeyList().add(Map.of("GENERATED_KEY", nextId.incrementAndGet()));
+                    }
+                    return new int[rows.getBatchSize()];
+                });
+    }
+
+    private static ByteArrayInputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.cache.CategoryTree;
+import com.example.ecommerce.cache.CategoryTreeCache;
+import com.example.ecommerce.dto.ProductFacetResponse;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.search.FacetIndex;
+import com.example.ecommerce.search.FacetQuery;
+import com.example.ecommerce.search.FacetResult;
+import com.example.ecommerce.search.ProductSearchIndex;
+import com.example.ecommerce.search.SearchResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductServiceTest {
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private FacetIndex facetIndex;
+
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private CategoryTreeCache categoryTree;
+
+    @InjectMocks
+    private ProductService productService;
+
+    @Test
+    void categoryListingMatchesTheSubtreeCategoryIds() {
+        CategoryTree.Node headphones = new CategoryTree.Node(4L, "Headphones", 3L, 1, 3, 3, List.of());
+        CategoryTree.Node audio = new CategoryTree.Node(3L, "Audio", null, 0, 2, 3, List.of(headphones));
+        CategoryTree tree = mock(CategoryTree.class);
+        when(categoryTree.isReady()).thenReturn(true);
+        when(categoryTree.get()).thenReturn(tree);
+        when(tree.get(3L)).thenReturn(audio);
+        PageRequest pageable = PageRequest.of(0, 20);
+
+        productService.getProductsByCategory(3L, pageable);
+
+        verify(productRepository).findSummariesInCategories(List.of(3L, 4L), pageable);
+    }
+
+    @Test
+    void browsePageSizeIsCapped() {
+        FacetQuery query = browse(3, Integer.MAX_VALUE);
+
+        assertThat(query.limit()).isEqualTo(100);
+        assertThat(query.offset()).isEqualTo(300);
+    }
+
+    @Test
+    void browseSizeBelowOneBecomesOne() {
+        assertThat(browse(0, -5).limit()).isEqualTo(1);
+    }
+
+    @Test
+    void browseOffsetDoesNotOverflow() {
+        FacetQuery query = browse(Integer.MAX_VALUE, 100);
+
+        assertThat(query.offset()).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void negativeBrowsePageIsABadRequest() {
+        assertThatThrownBy(() -> productService.browseProducts(null, null, false, -1, 20))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        verifyNoInteractions(facetIndex);
+    }
+
+    @Test
+    void searchWithinTheWindowGoesToTheIndex() {
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search("lamp", 9_980, 20)).thenReturn(new SearchResult(List.of(), 12_000));
+
+        Page<?> page = productService.searchProducts("lamp", PageRequest.of(499, 20));
+
+        assertThat(page.getTotalElements()).isEqualTo(12_000);
+    }
+
+    @Test
+    void searchPastTheWindowIsABadRequest() {
+        when(searchIndex.isReady()).thenReturn(true);
+
+        // 200,000,000 * 20 would wrap to a negative int offset
+        for (PageRequest pageable : List.of(PageRequest.of(500, 20), PageRequest.of(200_000_000, 20))) {
+            assertThatThrownBy(() -> productService.searchProducts("lamp", pageable))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        }
+        verify(searchIndex, never()).search(anyString(), anyInt(), anyInt());
+    }
+
+    private FacetQuery browse(int page, int size) {
+        when(facetIndex.isReady()).thenReturn(true);
+        when(facetIndex.query(any())).thenReturn(new FacetResult(List.of(), 0, List.of(), List.of(), 0));
+        ProductFacetResponse response = productService.browseProducts(null, null, false, page, size);
+
+        ArgumentCaptor<FacetQuery> query = ArgumentCaptor.forClass(FacetQuery.class);
+        verify(facetIndex).query(query.capture());
+        assertThat(response.getSize()).isEqualTo(query.getValue().limit());
+        return query.getValue();
+    }
+}
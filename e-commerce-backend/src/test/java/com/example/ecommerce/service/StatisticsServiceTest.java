@@ -0,0 +1,73 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.StatisticsView;
+import com.example.ecommerce.entity.Order;
+import com.example.ecommerce.repository.OrderRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StatisticsServiceTest {
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @InjectMocks
+    private StatisticsService statisticsService;
+
+    @Test
+    void totalsComeFromTheGroupedRowsAndSkipCancelledRevenue() {
+        when(orderRepository.summarizeByStatus()).thenReturn(List.of(
+                new Object[]{"PENDING", 3L, new BigDecimal("30.00")},
+                new Object[]{"DELIVERED", 2L, new BigDecimal("120.50")},
+                new Object[]{"CANCELLED", 4L, new BigDecimal("999.00")}));
+        Order latest = new Order();
+        when(orderRepository.findByIdLessThanOrderByIdDesc(eq(Long.MAX_VALUE), any()))
+                .thenReturn(new SliceImpl<>(List.of(latest), PageRequest.of(0, 10), false));
+        when(productRepository.count()).thenReturn(40L);
+        when(productRepository.countByStockLessThan(StatisticsService.LOW_STOCK_THRESHOLD)).thenReturn(6L);
+        when(productRepository.countByStock(0)).thenReturn(2L);
+        when(productRepository.findSummariesWithStockBelow(anyInt(), any())).thenReturn(List.of());
+
+        StatisticsView stats = statisticsService.getStatistics();
+
+        assertThat(stats.totalOrders()).isEqualTo(9);
+        assertThat(stats.ordersByStatus()).containsEntry("PENDING", 3L).containsEntry("CANCELLED", 4L);
+        assertThat(stats.totalRevenue()).isEqualByComparingTo("150.50");
+        assertThat(stats.totalProducts()).isEqualTo(40);
+        assertThat(stats.lowStockCount()).isEqualTo(6);
+        assertThat(stats.outOfStockCount()).isEqualTo(2);
+        assertThat(stats.recentOrders()).containsExactly(latest);
+    }
+
+    @Test
+    void emptyStoreHasZeroRevenue() {
+        when(orderRepository.summarizeByStatus()).thenReturn(List.of());
+        when(orderRepository.findByIdLessThanOrderByIdDesc(eq(Long.MAX_VALUE), any()))
+                .thenReturn(new SliceImpl<>(List.of()));
+        when(productRepository.findSummariesWithStockBelow(anyInt(), any())).thenReturn(List.of());
+
+        StatisticsView stats = statisticsService.getStatistics();
+
+        assertThat(stats.totalOrders()).isZero();
+        assertThat(stats.totalRevenue()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(stats.ordersByStatus()).isEmpty();
+    }
+}
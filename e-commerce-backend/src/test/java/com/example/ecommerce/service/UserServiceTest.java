@@ -0,0 +1,60 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.entity.Address;
+import com.example.ecommerce.entity.User;
+import com.example.ecommerce.repository.AddressRepository;
+import com.example.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+// Each repository call stands for one query; none of these should look the user up first
+@ExtendWith(MockitoExtension.class)
+class UserServiceTest {
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private AddressRepository addressRepository;
+
+    @InjectMocks
+    private UserService userService;
+
+    @Test
+    void listingAddressesIsOneQueryByUserId() {
+        Address address = new Address();
+        when(addressRepository.findByUserId(7L)).thenReturn(List.of(address));
+
+        assertThat(userService.getUserAddresses(7L)).containsExactly(address);
+
+        verify(addressRepository).findByUserId(7L);
+        verifyNoMoreInteractions(addressRepository);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void addingAnAddressLinksAUserReferenceWithoutLoadingIt() {
+        User reference = new User();
+        reference.setId(7L);
+        Address address = new Address();
+        when(userRepository.getReferenceById(7L)).thenReturn(reference);
+        when(addressRepository.save(address)).thenReturn(address);
+
+        userService.addAddress(7L, address);
+
+        assertThat(address.getUser()).isSameAs(reference);
+        verify(userRepository).getReferenceById(7L);
+        verify(addressRepository).save(address);
+        verifyNoMoreInteractions(userRepository, addressRepository);
+    }
+}
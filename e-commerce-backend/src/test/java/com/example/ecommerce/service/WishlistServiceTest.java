@@ -0,0 +1,48 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.entity.User;
+import com.example.ecommerce.entity.Wishlist;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.repository.UserRepository;
+import com.example.ecommerce.repository.WishlistRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WishlistServiceTest {
+    @Mock
+    private WishlistRepository wishlistRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private WishlistService wishlistService;
+
+    @Test
+    void existingWishlistIsOneQueryByUserId() {
+        Wishlist wishlist = new Wishlist(3L, new User(), new ArrayList<>());
+        when(wishlistRepository.findByUserId(7L)).thenReturn(Optional.of(wishlist));
+
+        assertThat(wishlistService.getWishlistByUserId(7L)).isSameAs(wishlist);
+
+        verify(wishlistRepository).findByUserId(7L);
+        verifyNoMoreInteractions(wishlistRepository);
+        verifyNoInteractions(userRepository, productRepository);
+    }
+}
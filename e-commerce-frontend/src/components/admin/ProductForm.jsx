@@ -85,8 +85,17 @@ const ProductForm = ({ isOpen, onClose, product, onSuccess }) => {
             };
 
             if (product) {
-                // Update existing product
-                await api.put(`/products/${product.id}`, payload);
+                // Send only the changed fields; the version makes a concurrent edit fail instead of being overwritten
+                const patch = { version: product.version };
+                if (payload.name !== product.name) patch.name = payload.name;
+                if (payload.description !== product.description) patch.description = payload.description;
+                if (payload.price !== Number(product.price)) patch.price = payload.price;
+                if (payload.stock !== product.stock) patch.stock = payload.stock;
+                if (payload.category.id !== product.category?.id) patch.categoryId = payload.category.id;
+                if (payload.imageUrl !== product.imageUrl) patch.imageUrl = payload.imageUrl;
+                if (Object.keys(patch).length > 1) {
+                    await api.patch(`/products/${product.id}`, patch);
+                }
                 toast.success('Product updated successfully!');
             } else {
                 // Create new product
@@ -98,7 +107,11 @@ const ProductForm = ({ isOpen, onClose, product, onSuccess }) => {
             onClose();
         } catch (error) {
             console.error('Error saving product:', error);
-            toast.error(error.response?.data?.message || 'Failed to save product');
+            if (error.response?.status === 409) {
+                toast.error('This product was changed by someone else. Reopen it to see the latest version.');
+            } else {
+                toast.error(error.response?.data?.message || 'Failed to save product');
+            }
         } finally {
             setSubmitting(false);
         }
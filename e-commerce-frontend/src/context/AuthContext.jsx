@@ -1,5 +1,5 @@
 import { createContext, useState, useEffect, useContext } from 'react';
-import api from '../services/api';
+import api, { GUEST_CART_TOKEN } from '../services/api';
 
 const AuthContext = createContext(null);
 
@@ -34,7 +34,10 @@ export const AuthProvider = ({ children }) => {
 
     const login = async (email, password) => {
         try {
-            const response = await api.post('/auth/login', { email, password });
+            // The server merges the guest cart, if any, into the user's cart
+            const cartToken = localStorage.getItem(GUEST_CART_TOKEN);
+            const response = await api.post('/auth/login', { email, password, cartToken });
+            localStorage.removeItem(GUEST_CART_TOKEN);
 
             const { token, ...userData } = response.data;
 
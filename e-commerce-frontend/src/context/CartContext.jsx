@@ -1,10 +1,15 @@
 import { createContext, useState, useContext, useEffect } from 'react';
-import api from '../services/api';
+import api, { GUEST_CART_TOKEN } from '../services/api';
 import { toast } from 'react-toastify';
 import { useAuth } from './AuthContext';
 
 const CartContext = createContext();
 
+const guestHeaders = () => {
+    const token = localStorage.getItem(GUEST_CART_TOKEN);
+    return token ? { 'X-Cart-Token': token } : {};
+};
+
 export const useCart = () => {
     const context = useContext(CartContext);
     if (!context) {
@@ -18,17 +23,41 @@ export const CartProvider = ({ children }) => {
     const [loading, setLoading] = useState(false);
     const { user } = useAuth();
 
-    // Fetch cart when user logs in
+    // Fetch the user's cart on login, the guest cart otherwise
     useEffect(() => {
-        if (user) {
-            fetchCart();
+        fetchCart();
+    }, [user]);
+
+    // The response of every guest cart call carries the token to use next
+    const setGuestCart = (data) => {
+        if (data.cartToken) {
+            localStorage.setItem(GUEST_CART_TOKEN, data.cartToken);
         } else {
-            setCart(null);
+            localStorage.removeItem(GUEST_CART_TOKEN);
         }
-    }, [user]);
+        setCart(data.cart);
+    };
+
+    const applyGuestOperations = async (operations) => {
+        const response = await api.post('/cart/guest/batch', operations, { headers: guestHeaders() });
+        setGuestCart(response.data);
+    };
 
     const fetchCart = async () => {
-        if (!user) return;
+        if (!user) {
+            if (!localStorage.getItem(GUEST_CART_TOKEN)) {
+                setCart(null);
+                return;
+            }
+            try {
+                const response = await api.get('/cart/guest', { headers: guestHeaders() });
+                setGuestCart(response.data);
+            } catch (error) {
+                console.error('Error fetching cart:', error);
+                setCart(null);
+            }
+            return;
+        }
 
         try {
             setLoading(true);
@@ -44,14 +73,13 @@ export const CartProvider = ({ children }) => {
     };
 
     const addToCart = async (productId, quantity = 1) => {
-        if (!user) {
-            toast.error('Please login to add items to cart');
-            return false;
-        }
-
         try {
-            const response = await api.post(`/cart/add?productId=${productId}&quantity=${quantity}`);
-            setCart(response.data);
+            if (user) {
+                const response = await api.post(`/cart/add?productId=${productId}&quantity=${quantity}`);
+                setCart(response.data);
+            } else {
+                await applyGuestOperations([{ op: 'ADD', productId, quantity }]);
+            }
             toast.success('Item added to cart!');
             return true;
         } catch (error) {
@@ -61,12 +89,14 @@ export const CartProvider = ({ children }) => {
         }
     };
 
-    const updateQuantity = async (itemId, quantity) => {
-        if (!user) return;
-
+    const updateQuantity = async (productId, quantity) => {
         try {
-            const response = await api.put(`/cart/item/${itemId}?quantity=${quantity}`);
-            setCart(response.data);
+            if (user) {
+                const response = await api.put(`/cart/item/${productId}?quantity=${quantity}`);
+                setCart(response.data);
+            } else {
+                await applyGuestOperations([{ op: 'SET', productId, quantity }]);
+            }
             toast.success('Cart updated');
         } catch (error) {
             console.error('Error updating quantity:', error);
@@ -74,12 +104,14 @@ export const CartProvider = ({ children }) => {
         }
     };
 
-    const removeFromCart = async (itemId) => {
-        if (!user) return;
-
+    const removeFromCart = async (productId) => {
         try {
-            const response = await api.delete(`/cart/item/${itemId}`);
-            setCart(response.data);
+            if (user) {
+                const response = await api.delete(`/cart/item/${productId}`);
+                setCart(response.data);
+            } else {
+                await applyGuestOperations([{ op: 'REMOVE', productId }]);
+            }
             toast.success('Item removed from cart');
         } catch (error) {
             console.error('Error removing item:', error);
@@ -87,16 +119,37 @@ export const CartProvider = ({ children }) => {
         }
     };
 
+    // operations: [{ op: 'ADD' | 'SET' | 'REMOVE', productId, quantity }], applied in one request
+    const applyCartOperations = async (operations) => {
+        try {
+            if (user) {
+                const response = await api.post('/cart/batch', operations);
+                setCart(response.data);
+            } else {
+                await applyGuestOperations(operations);
+            }
+            toast.success('Cart updated');
+            return true;
+        } catch (error) {
+            console.error('Error updating cart:', error);
+            toast.error('Failed to update cart');
+            return false;
+        }
+    };
+
     const clearCart = () => {
         setCart({ items: [] });
     };
 
     const getTotalItems = () => {
+        if (cart?.totalItems != null) return cart.totalItems;
         if (!cart || !cart.items) return 0;
         return cart.items.reduce((total, item) => total + item.quantity, 0);
     };
 
     const getTotalPrice = () => {
+        // Priced by the server; only the local empty placeholder cart lacks a subtotal
+        if (cart?.subtotal != null) return cart.subtotal;
         if (!cart || !cart.items) return 0;
         return cart.items.reduce((total, item) => {
             const price = item.product?.price || item.price || 0;
@@ -110,6 +163,7 @@ export const CartProvider = ({ children }) => {
         addToCart,
         updateQuantity,
         removeFromCart,
+        applyCartOperations,
         clearCart,
         fetchCart,
         getTotalItems,
@@ -1,10 +1,12 @@
 import { Link } from 'react-router-dom';
 import { useCart } from '../context/CartContext';
+import { useAuth } from '../context/AuthContext';
 import { Trash2, Plus, Minus, CheckCircle } from 'lucide-react';
 import { motion, AnimatePresence } from 'framer-motion';
 
 const Cart = () => {
     const { cart, removeFromCart, updateQuantity, getTotalPrice, getTotalItems } = useCart();
+    const { user } = useAuth();
     const cartItems = cart?.items || [];
 
     if (cartItems.length === 0) {
@@ -42,7 +44,7 @@ const Cart = () => {
                         <AnimatePresence>
                             {cartItems.map((item) => (
                                 <motion.div
-                                    key={item.id}
+                                    key={item.productId}
                                     layout
                                     initial={{ opacity: 0 }}
                                     animate={{ opacity: 1 }}
@@ -61,7 +63,7 @@ const Cart = () => {
                                         <div className="flex justify-between items-start">
                                             <div>
                                                 <h3 className="text-lg font-medium text-gray-900 leading-tight mb-1">
-                                                    <Link to={`/products/${item.id}`} className="hover:text-[#c45500] hover:underline">
+                                                    <Link to={`/products/${item.productId}`} className="hover:text-[#c45500] hover:underline">
                                                         {item.name}
                                                     </Link>
                                                 </h3>
@@ -79,7 +81,7 @@ const Cart = () => {
                                         <div className="flex items-center gap-4 mt-4">
                                             <div className="flex items-center border border-gray-300 rounded-md bg-[#f0f2f2] shadow-sm">
                                                 <button
-                                                    onClick={() => updateQuantity(item.id, item.quantity - 1)}
+                                                    onClick={() => updateQuantity(item.productId, item.quantity - 1)}
                                                     className="p-2 hover:bg-gray-200 transition-colors"
                                                     disabled={item.quantity <= 1}
                                                 >
@@ -89,7 +91,7 @@ const Cart = () => {
                                                     {item.quantity}
                                                 </span>
                                                 <button
-                                                    onClick={() => updateQuantity(item.id, item.quantity + 1)}
+                                                    onClick={() => updateQuantity(item.productId, item.quantity + 1)}
                                                     className="p-2 hover:bg-gray-200 transition-colors"
                                                 >
                                                     <Plus size={14} />
@@ -97,7 +99,7 @@ const Cart = () => {
                                             </div>
                                             <div className="h-4 w-px bg-gray-300"></div>
                                             <button
-                                                onClick={() => removeFromCart(item.id)}
+                                                onClick={() => removeFromCart(item.productId)}
                                                 className="text-sm text-blue-700 hover:text-[#c45500] hover:underline"
                                             >
                                                 Delete
@@ -128,11 +130,12 @@ const Cart = () => {
                                 <label htmlFor="gift" className="text-sm text-gray-900">This order contains a gift</label>
                             </div>
 
+                            {/* Guests sign in first; their cart is merged into the account */}
                             <Link
-                                to="/checkout"
+                                to={user ? '/checkout' : '/login'}
                                 className="block w-full py-2 bg-[#ffd814] hover:bg-[#f7ca00] border border-[#fcd200] rounded-lg text-black text-center text-sm font-normal shadow-sm transition-colors mb-4"
                             >
-                                Proceed to Checkout
+                                {user ? 'Proceed to Checkout' : 'Sign in to Checkout'}
                             </Link>
 
                             {/* Mock Payment Options */}
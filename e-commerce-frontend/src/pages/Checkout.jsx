@@ -36,7 +36,7 @@ const Checkout = () => {
 
         const orderData = {
             items: cartItems.map(item => ({
-                product: { id: item.id },
+                product: { id: item.productId },
                 quantity: item.quantity,
                 price: item.price
             })),
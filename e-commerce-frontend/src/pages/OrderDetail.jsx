@@ -2,6 +2,7 @@ import { useEffect, useState } from 'react';
 import { useParams, Link } from 'react-router-dom';
 import { ArrowLeft, Package, Truck, MapPin, CreditCard, CheckCircle, Clock, XCircle, Home, Printer, HelpCircle } from 'lucide-react';
 import api from '../services/api';
+import { useCart } from '../context/CartContext';
 import { toast } from 'react-toastify';
 import { motion } from 'framer-motion';
 
@@ -10,6 +11,7 @@ const OrderDetail = () => {
     const [order, setOrder] = useState(null);
     const [loading, setLoading] = useState(true);
     const [cancelling, setCancelling] = useState(false);
+    const { applyCartOperations } = useCart();
 
     const fetchOrder = async () => {
         try {
@@ -171,7 +173,19 @@ const OrderDetail = () => {
                         <div className="grid grid-cols-1 lg:grid-cols-3 gap-10">
                             {/* Items List */}
                             <div className="lg:col-span-2 space-y-6">
-                                <h3 className="text-lg font-bold text-gray-900 pb-2 border-b border-gray-100">Ordered Items</h3>
+                                <div className="flex justify-between items-center pb-2 border-b border-gray-100">
+                                    <h3 className="text-lg font-bold text-gray-900">Ordered Items</h3>
+                                    <button
+                                        onClick={() => applyCartOperations(order.items.map(item => ({
+                                            op: 'ADD',
+                                            productId: item.product?.id,
+                                            quantity: item.quantity
+                                        })))}
+                                        className="px-3 py-1 bg-[var(--color-accent)] hover:bg-[var(--color-accent-hover)] text-xs font-medium rounded-full shadow-sm"
+                                    >
+                                        Buy all again
+                                    </button>
+                                </div>
                                 <div className="space-y-6">
                                     {order.items?.map(item => (
                                         <div key={item.id} className="flex gap-4 group">
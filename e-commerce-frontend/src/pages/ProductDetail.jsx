@@ -9,6 +9,7 @@ const ProductDetail = () => {
     const { id } = useParams();
     const { addToCart } = useCart();
     const [product, setProduct] = useState(null);
+    const [rating, setRating] = useState(null);
     const [loading, setLoading] = useState(true);
     const [activeTab, setActiveTab] = useState('description');
     const [selectedImage, setSelectedImage] = useState(0);
@@ -16,8 +17,12 @@ const ProductDetail = () => {
     useEffect(() => {
         const fetchProduct = async () => {
             try {
-                const data = await productService.getProductById(id);
+                const [data, ratingData] = await Promise.all([
+                    productService.getProductById(id),
+                    productService.getRating(id)
+                ]);
                 setProduct(data);
+                setRating(ratingData);
             } catch (error) {
                 console.error("Failed to fetch product", error);
             } finally {
@@ -105,11 +110,12 @@ const ProductDetail = () => {
 
                         <div className="flex items-center gap-2 mb-4">
                             <div className="flex text-[#fea502]">
-                                {[...Array(5)].map((_, i) => (
-                                    <Star key={i} size={16} fill={i < 4 ? "currentColor" : "none"} className={i < 4 ? "" : "text-gray-300"} />
-                                ))}
+                                {[...Array(5)].map((_, i) => {
+                                    const filled = i < Math.round(rating?.average || 0);
+                                    return <Star key={i} size={16} fill={filled ? "currentColor" : "none"} className={filled ? "" : "text-gray-300"} />;
+                                })}
                             </div>
-                            <span className="text-sm text-blue-700 hover:underline cursor-pointer">1,234 ratings</span>
+                            <span className="text-sm text-blue-700 hover:underline cursor-pointer">{(rating?.count || 0).toLocaleString()} ratings</span>
                         </div>
 
                         <div className="h-px bg-gray-200 my-4"></div>
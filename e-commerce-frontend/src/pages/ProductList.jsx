@@ -6,9 +6,10 @@ import { Filter, Search, ChevronDown } from 'lucide-react';
 
 const ProductList = () => {
     const [products, setProducts] = useState([]);
+    const [categoryFacets, setCategoryFacets] = useState([]);
     const [loading, setLoading] = useState(true);
     const [searchTerm, setSearchTerm] = useState('');
-    const [selectedCategory, setSelectedCategory] = useState('All');
+    const [selectedCategory, setSelectedCategory] = useState(null);
     const [priceRange, setPriceRange] = useState(1000);
     const location = useLocation();
 
@@ -16,9 +17,12 @@ const ProductList = () => {
         const fetchProducts = async () => {
             setLoading(true);
             try {
-                const data = await productService.getAllProducts();
-                const content = data.content || data;
-                setProducts(content);
+                const data = await productService.browseProducts({
+                    categoryIds: selectedCategory ? [selectedCategory] : [],
+                    size: 100
+                });
+                setProducts(data.content || []);
+                setCategoryFacets(data.categories || []);
             } catch (err) {
                 console.error("Failed to fetch products", err);
             } finally {
@@ -27,17 +31,16 @@ const ProductList = () => {
         };
 
         fetchProducts();
-    }, [location.search]);
+    }, [location.search, selectedCategory]);
 
-    // Filtering logic
+    // Category filtering happens on the server; search and price refine the current page
     const filteredProducts = products.filter(product => {
         const matchesSearch = product.name.toLowerCase().includes(searchTerm.toLowerCase());
-        const matchesCategory = selectedCategory === 'All' || product.category?.name === selectedCategory;
         const matchesPrice = product.price <= priceRange;
-        return matchesSearch && matchesCategory && matchesPrice;
+        return matchesSearch && matchesPrice;
     });
 
-    const categories = ['All', ...new Set(products.map(p => p.category?.name).filter(Boolean))];
+    const categories = [{ id: null, name: 'All' }, ...categoryFacets];
 
     return (
         <div className="min-h-screen bg-white pb-10">
@@ -81,12 +84,12 @@ const ProductList = () => {
                             <h3 className="font-bold text-gray-900 mb-2 text-sm">Department</h3>
                             <div className="space-y-1">
                                 {categories.map(cat => (
-                                    <div key={cat} className="flex items-center">
+                                    <div key={cat.id ?? 'all'} className="flex items-center">
                                         <button
-                                            onClick={() => setSelectedCategory(cat)}
-                                            className={`text-sm hover:text-[#c45500] ${selectedCategory === cat ? 'font-bold text-black' : 'text-gray-600'}`}
+                                            onClick={() => setSelectedCategory(cat.id)}
+                                            className={`text-sm hover:text-[#c45500] ${selectedCategory === cat.id ? 'font-bold text-black' : 'text-gray-600'}`}
                                         >
-                                            {cat}
+                                            {cat.name}{cat.count !== undefined && ` (${cat.count})`}
                                         </button>
                                     </div>
                                 ))}
@@ -142,7 +145,7 @@ const ProductList = () => {
                             <div className="text-center py-20 border border-gray-200 rounded-lg bg-gray-50">
                                 <p className="text-gray-500 text-lg">No products found matching your criteria.</p>
                                 <button
-                                    onClick={() => { setSearchTerm(''); setSelectedCategory('All'); setPriceRange(1000); }}
+                                    onClick={() => { setSearchTerm(''); setSelectedCategory(null); setPriceRange(1000); }}
                                     className="mt-4 text-blue-600 hover:underline"
                                 >
                                     Clear Filters
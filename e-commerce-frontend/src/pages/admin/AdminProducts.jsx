@@ -32,9 +32,16 @@ const AdminProducts = () => {
         setIsFormOpen(true);
     };
 
-    const handleEdit = (product) => {
-        setSelectedProduct(product);
-        setIsFormOpen(true);
+    const handleEdit = async (product) => {
+        // Listings only carry a summary; the form needs the full product
+        try {
+            const response = await api.get(`/products/${product.id}`);
+            setSelectedProduct(response.data);
+            setIsFormOpen(true);
+        } catch (error) {
+            console.error('Error loading product:', error);
+            toast.error('Failed to load product');
+        }
     };
 
     const handleDelete = async (id, name) => {
@@ -151,9 +158,6 @@ const AdminProducts = () => {
                                     </td>
                                     <td style={{ padding: '1rem' }}>
                                         <div style={{ fontWeight: 500 }}>{product.name}</div>
-                                        <div style={{ fontSize: '0.85rem', color: 'var(--text-muted)', marginTop: '0.25rem' }}>
-                                            {product.description?.substring(0, 60)}{product.description?.length > 60 ? '...' : ''}
-                                        </div>
                                     </td>
                                     <td style={{ padding: '1rem' }}>
                                         <span style={{
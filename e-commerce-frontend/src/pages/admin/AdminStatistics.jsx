@@ -1,5 +1,5 @@
 import { useState, useEffect } from 'react';
-import { Package, ShoppingCart, DollarSign, TrendingUp, Users } from 'lucide-react';
+import { Package, ShoppingCart, DollarSign, TrendingUp, Users, Download } from 'lucide-react';
 import api from '../../services/api';
 import { toast } from 'react-toastify';
 
@@ -10,43 +10,23 @@ const AdminStatistics = () => {
     useEffect(() => {
         const fetchStatistics = async () => {
             try {
-                // Fetch all data needed for statistics
-                const [productsRes, ordersRes] = await Promise.all([
-                    api.get('/products?size=1000'),
-                    api.get('/orders/all')
-                ]);
-
-                const products = productsRes.data.content || [];
-                const orders = ordersRes.data || [];
-
-                // Calculate statistics
-                const totalProducts = products.length;
-                const totalOrders = orders.length;
-                const pendingOrders = orders.filter(o => o.status === 'PENDING').length;
-                const processingOrders = orders.filter(o => o.status === 'PROCESSING').length;
-                const shippedOrders = orders.filter(o => o.status === 'SHIPPED').length;
-                const deliveredOrders = orders.filter(o => o.status === 'DELIVERED').length;
-                const cancelledOrders = orders.filter(o => o.status === 'CANCELLED').length;
-
-                const totalRevenue = orders
-                    .filter(o => o.status !== 'CANCELLED')
-                    .reduce((sum, order) => sum + (order.totalAmount || 0), 0);
-
-                const lowStockProducts = products.filter(p => p.stock < 10);
-                const outOfStockProducts = products.filter(p => p.stock === 0);
+                // Counts and sums are computed by the server; only short lists come back
+                const { data } = await api.get('/statistics');
+                const byStatus = data.ordersByStatus || {};
 
                 setStats({
-                    totalProducts,
-                    totalOrders,
-                    pendingOrders,
-                    processingOrders,
-                    shippedOrders,
-                    deliveredOrders,
-                    cancelledOrders,
-                    totalRevenue,
-                    lowStockProducts,
-                    outOfStockProducts: outOfStockProducts.length,
-                    recentOrders: orders.slice(0, 10) // Last 10 orders
+                    totalProducts: data.totalProducts,
+                    totalOrders: data.totalOrders,
+                    pendingOrders: byStatus.PENDING || 0,
+                    processingOrders: byStatus.PROCESSING || 0,
+                    shippedOrders: byStatus.SHIPPED || 0,
+                    deliveredOrders: byStatus.DELIVERED || 0,
+                    cancelledOrders: byStatus.CANCELLED || 0,
+                    totalRevenue: Number(data.totalRevenue) || 0,
+                    lowStockCount: data.lowStockCount,
+                    lowStockProducts: data.lowStockProducts,
+                    outOfStockProducts: data.outOfStockCount,
+                    recentOrders: data.recentOrders
                 });
             } catch (error) {
                 console.error('Error fetching statistics:', error);
@@ -59,6 +39,22 @@ const AdminStatistics = () => {
         fetchStatistics();
     }, []);
 
+    // The exports stream every row, so they are saved to disk rather than parsed here
+    const downloadExport = async (name, format) => {
+        try {
+            const response = await api.get(`/export/${name}`, { params: { format }, responseType: 'blob' });
+            const url = URL.createObjectURL(response.data);
+            const link = document.createElement('a');
+            link.href = url;
+            link.download = `${name}.${format}`;
+            link.click();
+            URL.revokeObjectURL(url);
+        } catch (error) {
+            console.error('Error downloading export:', error);
+            toast.error('Failed to download export');
+        }
+    };
+
     if (loading) {
         return (
             <div style={{ display: 'flex', justifyContent: 'center', alignItems: 'center', minHeight: 'calc(100vh - 100px)' }}>
@@ -78,7 +74,19 @@ const AdminStatistics = () => {
     return (
         <div style={{ maxWidth: '1400px', margin: '0 auto', padding: '2rem' }}>
             <h1 style={{ fontSize: '2.5rem', fontWeight: 700, marginBottom: '0.5rem' }}>Statistics & Analytics</h1>
-            <p style={{ color: 'var(--text-muted)', marginBottom: '3rem' }}>Comprehensive business insights</p>
+            <p style={{ color: 'var(--text-muted)', marginBottom: '1.5rem' }}>Comprehensive business insights</p>
+            <div style={{ display: 'flex', gap: '0.75rem', flexWrap: 'wrap', marginBottom: '3rem' }}>
+                {['products', 'orders'].map(name => ['csv', 'ndjson'].map(format => (
+                    <button
+                        key={`${name}-${format}`}
+                        className="btn-secondary"
+                        onClick={() => downloadExport(name, format)}
+                        style={{ display: 'flex', alignItems: 'center', gap: '0.5rem' }}
+                    >
+                        <Download size={16} /> Export {name} ({format.toUpperCase()})
+                    </button>
+                )))}
+            </div>
 
             {/* Key Metrics */}
             <div style={{
@@ -198,13 +206,14 @@ const AdminStatistics = () => {
             </div>
 
             {/* Inventory Alerts */}
-            {stats.lowStockProducts.length > 0 && (
+            {stats.lowStockCount > 0 && (
                 <div className="glass-panel" style={{ padding: '2rem', marginBottom: '2rem', border: '2px solid var(--danger)40' }}>
                     <h2 style={{ fontSize: '1.5rem', fontWeight: 600, marginBottom: '1rem', color: 'var(--danger)' }}>
-                        ⚠️ Inventory Alerts ({stats.lowStockProducts.length})
+                        ⚠️ Inventory Alerts ({stats.lowStockCount})
                     </h2>
                     <p style={{ marginBottom: '1.5rem', color: 'var(--text-muted)' }}>
-                        The following products have low stock (less than 10 units):
+                        The following products have low stock (less than 10 units)
+                        {stats.lowStockCount > stats.lowStockProducts.length && `, lowest ${stats.lowStockProducts.length} shown`}:
                     </p>
                     <div style={{ display: 'grid', gap: '0.75rem', maxHeight: '300px', overflowY: 'auto' }}>
                         {stats.lowStockProducts.map(product => (
@@ -35,4 +35,7 @@ api.interceptors.response.use(
     }
 );
 
+// localStorage key of an anonymous shopper's guest cart token; the server merges that cart on login
+export const GUEST_CART_TOKEN = 'cartToken';
+
 export default api;
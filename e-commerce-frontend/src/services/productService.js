@@ -10,6 +10,19 @@ const productService = {
         }
     },
 
+    // Server-side filtering with live facet counts; categoryIds and priceBuckets are arrays
+    browseProducts: async ({ categoryIds = [], priceBuckets = [], inStock = false, page = 0, size = 20 } = {}) => {
+        try {
+            const params = new URLSearchParams({ inStock, page, size });
+            categoryIds.forEach(id => params.append('categoryId', id));
+            priceBuckets.forEach(bucket => params.append('priceBucket', bucket));
+            const response = await api.get(`/products/browse?${params.toString()}`);
+            return response.data;
+        } catch (error) {
+            throw error;
+        }
+    },
+
     getProductById: async (id) => {
         try {
             const response = await api.get(`/products/${id}`);
@@ -26,6 +39,34 @@ const productService = {
         } catch (error) {
             throw error;
         }
+    },
+
+    // Lightweight completions for the search box; use this per keystroke instead of searchProducts
+    suggestProducts: async (prefix, limit = 8) => {
+        try {
+            const response = await api.get(`/products/suggest?prefix=${encodeURIComponent(prefix)}&limit=${limit}`);
+            return response.data;
+        } catch (error) {
+            throw error;
+        }
+    },
+
+    getRating: async (id) => {
+        try {
+            const response = await api.get(`/products/${id}/rating`);
+            return response.data;
+        } catch (error) {
+            throw error;
+        }
+    },
+
+    getReviews: async (id, page = 0, size = 10) => {
+        try {
+            const response = await api.get(`/products/${id}/reviews?page=${page}&size=${size}`);
+            return response.data;
+        } catch (error) {
+            throw error;
+        }
     }
 };
 